@@ -0,0 +1,104 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+/**
+ * Throughput of evaluation of a single statement by all available paths.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculatorBenchmark {
+
+    /**
+     * Shape of statement: a few operations, a long flat chain of operations or deeply nested brackets.
+     */
+    @Param({"short", "long", "nested"})
+    public String shape;
+
+    private String statement;
+    private String invalidStatement;
+    private Calculator calculator;
+    private Calculator cachingCalculator;
+    private CompiledExpression compiled;
+    private CompiledExpression translated;
+
+    @Setup
+    public void setUp() {
+        statement = createStatement(shape);
+        invalidStatement = statement + ")";
+        calculator = new Calculator();
+        cachingCalculator = new Calculator(new ResultCache(1024));
+        compiled = calculator.compile(statement);
+        translated = compiled.withJitThreshold(1);
+        translated.calculate();
+    }
+
+    @Benchmark
+    public String evaluate() {
+        return calculator.evaluate(statement);
+    }
+
+    /**
+     * Statement which is rejected only at its last symbol, after it is parsed and calculated.
+     */
+    @Benchmark
+    public EvaluationResult tryEvaluateInvalid() {
+        return calculator.tryEvaluate(invalidStatement);
+    }
+
+    @Benchmark
+    public String evaluateCached() {
+        return cachingCalculator.evaluate(statement);
+    }
+
+    @Benchmark
+    public double calculateCompiled() {
+        return compiled.calculate();
+    }
+
+    @Benchmark
+    public double calculateTranslated() {
+        return translated.calculate();
+    }
+
+    static String createStatement(String shape) {
+        Random random = new Random(42);
+        StringBuilder statement = new StringBuilder();
+        switch (shape) {
+            case "short":
+                return "(1 + 38) * 4.5 - 1 / 2";
+            case "long":
+                statement.append(random.nextInt(100));
+                for (int i = 0; i < 200; i++) {
+                    statement.append(" +-*/".charAt(1 + random.nextInt(4)))
+                            .append(1 + random.nextInt(100)).append('.').append(random.nextInt(100));
+                }
+                return statement.toString();
+            case "nested":
+                for (int i = 0; i < 100; i++) {
+                    statement.append('(').append(1 + random.nextInt(9)).append(i % 2 == 0 ? '+' : '*');
+                }
+                statement.append('1');
+                for (int i = 0; i < 100; i++) {
+                    statement.append(')');
+                }
+                return statement.toString();
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of classifying a single symbol of statement by the lookup table compared with the former
+ * {@code HashSet<Character>} lookups. Run with {@code -prof gc} to see that the table does not allocate;
+ * sets box symbols outside of the {@link Character} cache, like the non-ASCII tail of the statement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CharacterClassesBenchmark {
+    private static final int LENGTH = 1024;
+
+    private static final Set<Character> OPERATORS = new HashSet<>(Arrays.asList('-', '+', '/', '*'));
+    private static final Set<Character> DECIMAL_DELIMITERS = new HashSet<>(Arrays.asList('.'));
+    private static final Set<Character> OPENING_BRACKETS = new HashSet<>(Arrays.asList('('));
+    private static final Set<Character> CLOSING_BRACKETS = new HashSet<>(Arrays.asList(')'));
+
+    private static final int CORRECT_SYMBOLS = CharacterClasses.DIGIT | CharacterClasses.ARITHMETIC_OPERATOR
+            | CharacterClasses.DECIMAL_MARK | CharacterClasses.OPENING_BRACKET | CharacterClasses.CLOSING_BRACKET;
+
+    private String statement;
+
+    @Setup
+    public void setUp() {
+        String statement = CalculatorBenchmark.createStatement("long") + CalculatorBenchmark.createStatement("nested");
+        StringBuilder symbols = new StringBuilder(LENGTH);
+        while (symbols.length() < LENGTH - 8) {
+            symbols.append(statement, 0, Math.min(statement.length(), LENGTH - 8 - symbols.length()));
+        }
+        // symbols which are not cached by Character.valueOf
+        symbols.append(" \u0660\u0661\u0662 \u3000\u0663\u0664");
+        this.statement = symbols.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public int classifyWithSets() {
+        int correct = 0;
+        for (int i = 0; i < statement.length(); i++) {
+            Character symbol = statement.charAt(i);
+            if (Character.isDigit(symbol) || OPERATORS.contains(symbol) || DECIMAL_DELIMITERS.contains(symbol)
+                    || OPENING_BRACKETS.contains(symbol) || CLOSING_BRACKETS.contains(symbol)) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public int classifyWithTable() {
+        int correct = 0;
+        for (int i = 0; i < statement.length(); i++) {
+            char symbol = statement.charAt(i);
+            if (CharacterClasses.is(symbol, CORRECT_SYMBOLS) || symbol >= 128 && Character.isDigit(symbol)) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+/**
+ * Throughput of a parameterized formula evaluated over many rows: row by row through the interpreter,
+ * row by row through generated bytecode and operator-at-a-time over columns. Scores are rows per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledExpressionBenchmark {
+    private static final String FORMULA = "(a + 38) * rate - b / 2 + (a - b) * (rate + 2.5 / a) - (b * 3 - rate)";
+    private static final int ROWS = 64 * 1024;
+
+    @Param({"interpreted", "translated"})
+    public String mode;
+
+    private CompiledExpression expression;
+    private double[][] columns;
+    private double[][] rows;
+    private double[] results;
+
+    @Setup
+    public void setUp() {
+        expression = new Calculator().compile(FORMULA);
+        if ("translated".equals(mode)) {
+            expression = expression.withJitThreshold(1);
+        }
+        Random random = new Random(42);
+        columns = new double[expression.getVariables().size()][ROWS];
+        rows = new double[ROWS][columns.length];
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < columns.length; j++) {
+                columns[j][i] = 1 + random.nextInt(1000) / 10.0;
+                rows[i][j] = columns[j][i];
+            }
+        }
+        results = new double[ROWS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double[] calculateRows() {
+        for (int i = 0; i < ROWS; i++) {
+            results[i] = expression.calculate(rows[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double[] calculateColumns() {
+        expression.calculateAll(columns, results, null);
+        return results;
+    }
+}
@@ -0,0 +1,62 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of formatting a result into a reused builder and buffer compared with the former formatting through
+ * {@link String#valueOf(double)}. Run with {@code -prof gc} to see that the formatter does not allocate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultFormatterBenchmark {
+
+    @Param({"151", "102.12356", "-0.0005"})
+    public double value;
+
+    private final StringBuilder builder = new StringBuilder(ResultFormatter.MAX_LENGTH);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(ResultFormatter.MAX_LENGTH);
+
+    @Setup
+    public void setUp() {
+        builder.setLength(0);
+    }
+
+    @Benchmark
+    public String formatWithStringValueOf() {
+        if (value == Math.floor(value)) {
+            return Integer.toString((int) value);
+        }
+        return String.valueOf(Math.round(value * 10000) / 10000.0);
+    }
+
+    @Benchmark
+    public int formatIntoBuilder() {
+        builder.setLength(0);
+        ResultFormatter.format(value, builder);
+        return builder.length();
+    }
+
+    @Benchmark
+    public int formatIntoBuffer() {
+        ((Buffer) buffer).clear();
+        return ResultFormatter.format(value, buffer);
+    }
+}
@@ -0,0 +1,51 @@
+package com.tsystems.javaschool.tasks.pyramid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Throughput of pyramid building from shuffled numbers. The builder sorts its input in place, so every
+ * operation includes copying of the shuffled list.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PyramidBuilderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int height;
+
+    private PyramidBuilder pyramidBuilder;
+    private List<Integer> numbers;
+
+    @Setup
+    public void setUp() {
+        pyramidBuilder = new PyramidBuilder();
+        int size = height * (height + 1) / 2;
+        numbers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers, new Random(42));
+    }
+
+    @Benchmark
+    public int[][] buildPyramid() {
+        return pyramidBuilder.buildPyramid(new ArrayList<>(numbers));
+    }
+}
@@ -0,0 +1,81 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of subsequence check of a large Y on a pool of {@code parallelism} threads compared with the sequential check.
+ * X is {@code xSize} elements taken from Y in order and spread over the whole Y, so the whole Y is scanned.
+ * Elements of Y are allocated in order, like boxed values of a list which is filled sequentially.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ParallelSubsequenceBenchmark {
+    private static final int DISTINCT = 1_000_000;
+
+    @Param({"10000000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int xSize;
+
+    @Param({"4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private Subsequence subsequence;
+    private ParallelSubsequence parallelSubsequence;
+    private List<Integer> x;
+    private List<Integer> y;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        y = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            y.add(new Integer(random.nextInt(DISTINCT)));
+        }
+        x = new ArrayList<>(xSize);
+        for (int i = 1; i <= xSize; i++) {
+            x.add(y.get((int) ((long) size * i / xSize) - 1));
+        }
+        subsequence = new Subsequence();
+        pool = new ForkJoinPool(parallelism);
+        parallelSubsequence = new ParallelSubsequence(pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public boolean findSequential() {
+        return subsequence.find(x, y);
+    }
+
+    @Benchmark
+    public boolean findParallel() {
+        return parallelSubsequence.find(x, y);
+    }
+}
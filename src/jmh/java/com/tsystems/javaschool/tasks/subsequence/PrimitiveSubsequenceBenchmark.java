@@ -0,0 +1,122 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of subsequence check over primitive sequences compared with the same values boxed into lists.
+ * Y is filled with zeros and X is taken from the marks placed every {@code gap} elements of Y,
+ * so the whole Y is scanned and the search for the next element skips {@code gap} elements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrimitiveSubsequenceBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"10", "100", "1000"})
+    public int gap;
+
+    private Subsequence subsequence;
+    private List<Integer> boxedX;
+    private List<Integer> boxedY;
+    private int[] intX;
+    private int[] intY;
+    private long[] longX;
+    private long[] longY;
+    private byte[] byteX;
+    private byte[] byteY;
+    private String stringX;
+    private String stringY;
+    private StringBuilder builderY;
+
+    @Setup
+    public void setUp() {
+        subsequence = new Subsequence();
+        int marks = size / gap;
+        intY = new int[size];
+        intX = new int[marks];
+        for (int i = 0; i < marks; i++) {
+            intX[i] = 1 + i % 127;
+            intY[i * gap + gap - 1] = intX[i];
+        }
+        boxedX = box(intX);
+        boxedY = box(intY);
+        longX = new long[marks];
+        longY = new long[size];
+        byteX = new byte[marks];
+        byteY = new byte[size];
+        char[] charX = new char[marks];
+        char[] charY = new char[size];
+        for (int i = 0; i < size; i++) {
+            longY[i] = intY[i];
+            byteY[i] = (byte) intY[i];
+            charY[i] = (char) intY[i];
+        }
+        for (int i = 0; i < marks; i++) {
+            longX[i] = intX[i];
+            byteX[i] = (byte) intX[i];
+            charX[i] = (char) intX[i];
+        }
+        stringX = new String(charX);
+        stringY = new String(charY);
+        builderY = new StringBuilder(stringY);
+    }
+
+    @Benchmark
+    public boolean findBoxed() {
+        return subsequence.find(boxedX, boxedY);
+    }
+
+    @Benchmark
+    public boolean findInts() {
+        return subsequence.find(intX, intY);
+    }
+
+    @Benchmark
+    public boolean findLongs() {
+        return subsequence.find(longX, longY);
+    }
+
+    @Benchmark
+    public boolean findBytes() {
+        return subsequence.find(byteX, byteY);
+    }
+
+    @Benchmark
+    public boolean findString() {
+        return subsequence.find(stringX, stringY);
+    }
+
+    @Benchmark
+    public boolean findCharSequence() {
+        return subsequence.find(stringX, builderY);
+    }
+
+    private static List<Integer> box(int[] array) {
+        // values are small, so equal values are the same cached instances
+        List<Integer> result = new ArrayList<>(array.length);
+        for (int element : array) {
+            result.add(element);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Throughput of subsequence check where X is every tenth element of Y, so the whole Y is scanned.
+ * Linked lists are checked by iterators and stay linear, like the array lists.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SubsequenceBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int size;
+
+    private Subsequence subsequence;
+    private List<Integer> x;
+    private List<Integer> y;
+    private List<Integer> linkedX;
+    private List<Integer> linkedY;
+
+    @Setup
+    public void setUp() {
+        subsequence = new Subsequence();
+        Random random = new Random(42);
+        y = new ArrayList<>(size);
+        x = new ArrayList<>(size / 10 + 1);
+        for (int i = 0; i < size; i++) {
+            Integer element = random.nextInt();
+            y.add(element);
+            if (i % 10 == 9) {
+                x.add(element);
+            }
+        }
+        linkedX = new LinkedList<>(x);
+        linkedY = new LinkedList<>(y);
+    }
+
+    @Benchmark
+    public boolean find() {
+        return subsequence.find(x, y);
+    }
+
+    @Benchmark
+    public boolean findLinked() {
+        return subsequence.find(linkedX, linkedY);
+    }
+}
@@ -0,0 +1,91 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a single query against the same Y: scan of Y compared with the prebuilt index.
+ * Y holds {@code distinct} different elements, queries are {@value #QUERY_SIZE} elements taken from Y in order,
+ * so scans stop at random points of Y.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SubsequenceIndexBenchmark {
+    private static final int QUERIES = 100;
+    private static final int QUERY_SIZE = 100;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"10", "10000"})
+    public int distinct;
+
+    private Subsequence subsequence;
+    private SubsequenceIndex index;
+    private List<Integer> y;
+    private List<List<Integer>> queries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Integer[] elements = new Integer[distinct];
+        for (int i = 0; i < distinct; i++) {
+            elements[i] = new Integer(i);
+        }
+        y = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            y.add(elements[random.nextInt(distinct)]);
+        }
+        queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            List<Integer> query = new ArrayList<>(QUERY_SIZE);
+            for (int position = random.nextInt(size / QUERY_SIZE); query.size() < QUERY_SIZE;
+                 position += 1 + random.nextInt(size / QUERY_SIZE)) {
+                query.add(y.get(Math.min(position, size - 1)));
+            }
+            queries.add(query);
+        }
+        subsequence = new Subsequence();
+        index = new SubsequenceIndex(y);
+        System.out.println("Index of " + size + " elements uses " + index.getMemoryUsage() + " bytes");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int findByScan() {
+        int found = 0;
+        for (List<Integer> query : queries) {
+            found += subsequence.find(query, y) ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int findByIndex() {
+        int found = 0;
+        for (List<Integer> query : queries) {
+            found += index.find(query) ? 1 : 0;
+        }
+        return found;
+    }
+}
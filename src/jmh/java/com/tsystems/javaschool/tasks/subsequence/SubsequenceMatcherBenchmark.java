@@ -0,0 +1,87 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of finding which of many patterns are subsequences of Y: check of every pattern compared with the
+ * single pass of the matcher. Half of the patterns are taken from Y in order, the other half is random,
+ * elements are drawn from {@value #DISTINCT} distinct values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SubsequenceMatcherBenchmark {
+    private static final int DISTINCT = 10000;
+    private static final int PATTERN_SIZE = 20;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int patternCount;
+
+    private Subsequence subsequence;
+    private SubsequenceMatcher matcher;
+    private List<Integer> y;
+    private List<List<Integer>> patterns;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Integer[] elements = new Integer[DISTINCT];
+        for (int i = 0; i < DISTINCT; i++) {
+            elements[i] = new Integer(i);
+        }
+        y = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            y.add(elements[random.nextInt(DISTINCT)]);
+        }
+        patterns = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            List<Integer> pattern = new ArrayList<>(PATTERN_SIZE);
+            int position = 0;
+            while (pattern.size() < PATTERN_SIZE) {
+                position += 1 + random.nextInt(size / PATTERN_SIZE);
+                pattern.add(i % 2 == 0 ? y.get(Math.min(position, size - 1)) : elements[random.nextInt(DISTINCT)]);
+            }
+            patterns.add(pattern);
+        }
+        subsequence = new Subsequence();
+        matcher = new SubsequenceMatcher(patterns);
+    }
+
+    @Benchmark
+    public BitSet findEach() {
+        BitSet result = new BitSet(patterns.size());
+        for (int i = 0; i < patterns.size(); i++) {
+            if (subsequence.find(patterns.get(i), y)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BitSet findAll() {
+        return matcher.find(y);
+    }
+}
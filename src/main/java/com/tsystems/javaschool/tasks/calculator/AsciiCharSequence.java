@@ -0,0 +1,94 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable view of ASCII bytes of a buffer or array as a character sequence.
+ * Bytes are not copied or decoded: every byte is a character in range 0-255, so anything but ASCII
+ * is treated as an invalid symbol by the parser. Writable heap buffers are read through their arrays.
+ * The view must not be shared between threads.
+ */
+final class AsciiCharSequence implements CharSequence {
+    private ByteBuffer buffer;
+    private byte[] array;
+    private int offset;
+    private int length;
+
+    /**
+     * Points the view to a region of buffer.
+     *
+     * @param buffer to be viewed, its position and limit are not changed.
+     * @param offset absolute index of the first byte.
+     * @param length number of bytes.
+     * @return this view.
+     */
+    AsciiCharSequence set(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) {
+            return set(buffer.array(), buffer.arrayOffset() + offset, length);
+        }
+        this.buffer = buffer;
+        this.array = null;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Points the view to a region of array.
+     *
+     * @param array  to be viewed.
+     * @param offset index of the first byte.
+     * @param length number of bytes.
+     * @return this view.
+     */
+    AsciiCharSequence set(byte[] array, int offset, int length) {
+        this.buffer = null;
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Releases the viewed buffer or array.
+     */
+    void clear() {
+        buffer = null;
+        array = null;
+        length = 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of range 0-" + length);
+        }
+        return byteAt(offset + index);
+    }
+
+    private char byteAt(int index) {
+        return (char) ((array != null ? array[index] : buffer.get(index)) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + "-" + end + " is out of range 0-" + length);
+        }
+        char[] symbols = new char[end - start];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = byteAt(offset + start + i);
+        }
+        return new String(symbols);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
@@ -0,0 +1,261 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.Arrays;
+
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ADD;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.DIVIDE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MULTIPLY;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.NEGATE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_BITS;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_MASK;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_CONSTANT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_VARIABLE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SUBTRACT;
+
+/**
+ * Evaluates a compiled program over columns of variable values.
+ * <p>
+ * Rows are processed in chunks which fit into CPU cache and every instruction is applied to the whole chunk
+ * before the next one, so each operation is a plain loop over arrays which the JIT can unroll and vectorize.
+ * A stack slot is either a scalar (constants and results of operations on constants) or a vector, which
+ * is a column of the input or a buffer owned by the slot. Vector operations never copy input columns.
+ * Arithmetic operators have dedicated loops, other operations are applied through {@link Operators}.
+ * <p>
+ * Instances hold buffers of a single evaluation and must not be shared between threads.
+ */
+final class BatchInterpreter {
+    static final int CHUNK_SIZE = 1024;
+
+    private final int[] instructions;
+    private final double[] constants;
+
+    private final double[][] buffers;
+    private final double[] scalars;
+    private final double[][] vectors;
+    private final int[] offsets;
+
+    BatchInterpreter(int[] instructions, double[] constants, int maxStackDepth) {
+        this.instructions = instructions;
+        this.constants = constants;
+        this.buffers = new double[maxStackDepth][];
+        this.scalars = new double[maxStackDepth];
+        this.vectors = new double[maxStackDepth][];
+        this.offsets = new int[maxStackDepth];
+    }
+
+    /**
+     * Calculates program for every row.
+     *
+     * @param columns  values of variables, one column per variable.
+     * @param results  receives calculated values, its length is the number of rows.
+     * @param validity receives bit {@code i % 64} of word {@code i / 64} set if result of row {@code i} is
+     *                 a finite number, can be null.
+     * @return number of rows with finite results.
+     */
+    int calculate(double[][] columns, double[] results, long[] validity) {
+        int rows = results.length;
+        if (validity != null) {
+            Arrays.fill(validity, 0, (rows + Long.SIZE - 1) / Long.SIZE, 0L);
+        }
+
+        int validRows = 0;
+        for (int start = 0; start < rows; start += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, rows - start);
+            calculateChunk(columns, start, length);
+            if (vectors[0] == null) {
+                Arrays.fill(results, start, start + length, scalars[0]);
+            } else {
+                System.arraycopy(vectors[0], offsets[0], results, start, length);
+            }
+            validRows += markValidRows(results, start, length, validity);
+        }
+        return validRows;
+    }
+
+    private void calculateChunk(double[][] columns, int start, int length) {
+        int size = 0;
+        for (int instruction : instructions) {
+            switch (instruction & OPCODE_MASK) {
+                case PUSH_CONSTANT:
+                    vectors[size] = null;
+                    scalars[size++] = constants[instruction >>> OPCODE_BITS];
+                    break;
+                case PUSH_VARIABLE:
+                    vectors[size] = columns[instruction >>> OPCODE_BITS];
+                    offsets[size++] = start;
+                    break;
+                default:
+                    int opcode = instruction & OPCODE_MASK;
+                    if (Operators.arity(opcode) == 1) {
+                        applyUnary(opcode, size - 1, length);
+                    } else {
+                        size--;
+                        apply(opcode, size - 1, size, length);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Applies unary operator to slot.
+     */
+    private void applyUnary(int opcode, int slot, int length) {
+        double[] vector = vectors[slot];
+        if (vector == null) {
+            scalars[slot] = Operators.apply(opcode, scalars[slot], 0);
+            return;
+        }
+        double[] result = buffer(slot);
+        int offset = offsets[slot];
+        if (opcode == NEGATE) {
+            for (int i = 0; i < length; i++) {
+                result[i] = -vector[offset + i];
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[i] = Operators.apply(opcode, vector[offset + i], 0);
+            }
+        }
+        vectors[slot] = result;
+        offsets[slot] = 0;
+    }
+
+    private double[] buffer(int slot) {
+        double[] buffer = buffers[slot];
+        if (buffer == null) {
+            buffer = new double[CHUNK_SIZE];
+            buffers[slot] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Applies operator to two slots storing result into the first one.
+     */
+    private void apply(int opcode, int first, int second, int length) {
+        double[] firstVector = vectors[first];
+        double[] secondVector = vectors[second];
+        if (firstVector == null && secondVector == null) {
+            scalars[first] = Operators.apply(opcode, scalars[first], scalars[second]);
+            return;
+        }
+
+        double[] result = buffer(first);
+        if (firstVector == null) {
+            applyScalarVector(opcode, scalars[first], secondVector, offsets[second], result, length);
+        } else if (secondVector == null) {
+            applyVectorScalar(opcode, firstVector, offsets[first], scalars[second], result, length);
+        } else {
+            applyVectorVector(opcode, firstVector, offsets[first], secondVector, offsets[second], result, length);
+        }
+        vectors[first] = result;
+        offsets[first] = 0;
+    }
+
+    private static void applyScalarVector(int opcode, double first, double[] second, int secondOffset,
+                                          double[] result, int length) {
+        switch (opcode) {
+            case ADD:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first + second[secondOffset + i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first - second[secondOffset + i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first * second[secondOffset + i];
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first / second[secondOffset + i];
+                }
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    result[i] = Operators.apply(opcode, first, second[secondOffset + i]);
+                }
+                break;
+        }
+    }
+
+    private static void applyVectorScalar(int opcode, double[] first, int firstOffset, double second,
+                                          double[] result, int length) {
+        switch (opcode) {
+            case ADD:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] + second;
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] - second;
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] * second;
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] / second;
+                }
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    result[i] = Operators.apply(opcode, first[firstOffset + i], second);
+                }
+                break;
+        }
+    }
+
+    private static void applyVectorVector(int opcode, double[] first, int firstOffset,
+                                          double[] second, int secondOffset, double[] result, int length) {
+        switch (opcode) {
+            case ADD:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] + second[secondOffset + i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] - second[secondOffset + i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] * second[secondOffset + i];
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < length; i++) {
+                    result[i] = first[firstOffset + i] / second[secondOffset + i];
+                }
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    result[i] = Operators.apply(opcode, first[firstOffset + i], second[secondOffset + i]);
+                }
+                break;
+        }
+    }
+
+    private static int markValidRows(double[] results, int start, int length, long[] validity) {
+        int validRows = 0;
+        for (int i = start; i < start + length; i++) {
+            if (Math.abs(results[i]) <= Double.MAX_VALUE) {
+                validRows++;
+                if (validity != null) {
+                    validity[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        return validRows;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates many independent statements on an executor.
+ * <p>
+ * Statements are grouped into batches, each batch is a single task, so the per-task overhead is paid once
+ * per batch. Every statement is evaluated by {@link Calculator#evaluate(String)}, which looks up the evaluator
+ * of the current thread. On virtual threads, which do not outlive their task, the evaluator is created once per
+ * batch and reused for the rest of it. Results are always returned in the order of statements.
+ */
+final class BulkEvaluator {
+    static final int BATCH_SIZE = 1024;
+
+    private final Calculator calculator;
+    private final Executor executor;
+    private final int maxBatchesInFlight;
+
+    /**
+     * @param calculator         evaluating single statements, must be safe to share between threads.
+     * @param executor           running batches.
+     * @param maxBatchesInFlight maximum number of batches which are evaluated or wait to be consumed.
+     */
+    BulkEvaluator(Calculator calculator, Executor executor, int maxBatchesInFlight) {
+        this.calculator = calculator;
+        this.executor = executor;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+    }
+
+    /**
+     * Evaluates all statements of list.
+     *
+     * @param statements to be evaluated.
+     * @return results in the order of statements.
+     */
+    List<String> evaluate(List<String> statements) {
+        // copied once, so batches do not access list by index, which is slow for linked lists;
+        // every statement is replaced by its result
+        String[] results = statements.toArray(new String[0]);
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int start = 0; start < results.length; start += BATCH_SIZE) {
+            int from = start;
+            int to = Math.min(start + BATCH_SIZE, results.length);
+            batches.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = calculator.evaluate(results[i]);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).join();
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Evaluates statements provided by iterator passing results to consumer.
+     * Statements are read only when there is room for a new batch, so a slow consumer holds back reading
+     * and no more than {@code maxBatchesInFlight} batches are kept in memory.
+     *
+     * @param statements to be evaluated, iterator is used by the calling thread only.
+     * @param results    receives results in the order of statements, on the calling thread.
+     * @return number of evaluated statements.
+     */
+    long evaluate(Iterator<String> statements, Consumer<? super String> results) {
+        Deque<CompletableFuture<String[]>> batches = new ArrayDeque<>(maxBatchesInFlight);
+        long evaluated = 0;
+        while (statements.hasNext()) {
+            if (batches.size() == maxBatchesInFlight) {
+                evaluated += consume(batches.poll(), results);
+            }
+            String[] batch = new String[BATCH_SIZE];
+            int size = 0;
+            while (size < BATCH_SIZE && statements.hasNext()) {
+                batch[size++] = statements.next();
+            }
+            String[] batchStatements = size == BATCH_SIZE ? batch : Arrays.copyOf(batch, size);
+            batches.add(CompletableFuture.supplyAsync(() -> evaluateBatch(batchStatements), executor));
+        }
+        while (!batches.isEmpty()) {
+            evaluated += consume(batches.poll(), results);
+        }
+        return evaluated;
+    }
+
+    private String[] evaluateBatch(String[] batch) {
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = calculator.evaluate(batch[i]);
+        }
+        return batch;
+    }
+
+    private static int consume(CompletableFuture<String[]> batch, Consumer<? super String> results) {
+        String[] batchResults = batch.join();
+        for (String result : batchResults) {
+            results.accept(result);
+        }
+        return batchResults.length;
+    }
+}
@@ -0,0 +1,344 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ABS;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ADD;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.DIVIDE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MAX;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MIN;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MULTIPLY;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.NEGATE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_BITS;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_MASK;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.POWER;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_CONSTANT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_VARIABLE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.REMAINDER;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SQRT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SUBTRACT;
+
+/**
+ * Translates a compiled program into a JVM class with straight-line arithmetic.
+ * <p>
+ * The generated class implements {@link ToDoubleFunction} over the array of variable values. Its only method
+ * loads constants from the constant pool and values from the array and applies {@code dadd}, {@code dsub},
+ * {@code dmul}, {@code ddiv}, {@code drem}, {@code dneg} and static methods of {@link Math} in postfix order,
+ * so the JIT compiles it like any hand-written formula.
+ * The method has no branches, hence no stack map frames are required. Every class is defined by its own
+ * class loader and is unloaded together with the expression.
+ */
+final class BytecodeGenerator {
+    /*
+     * Keeps generated methods far below the 64 KB limit of method code and the 8 KB limit of methods
+     * which are compiled by the JIT.
+     */
+    static final int MAX_INSTRUCTIONS = 1024;
+
+    private static final String CLASS_NAME_PREFIX = "com/tsystems/javaschool/tasks/calculator/GeneratedExpression$";
+    private static final AtomicLong CLASS_COUNTER = new AtomicLong();
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+    private static final int JAVA_8_VERSION = 52;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final String MATH_CLASS = "java/lang/Math";
+    private static final String BINARY_FUNCTION = "(DD)D";
+    private static final String UNARY_FUNCTION = "(D)D";
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int DALOAD = 0x31;
+    private static final int ASTORE_2 = 0x4d;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DDIV = 0x6f;
+    private static final int DREM = 0x73;
+    private static final int DNEG = 0x77;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int CHECKCAST = 0xc0;
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> utf8Constants = new HashMap<>();
+    private final Map<Integer, Integer> intConstants = new HashMap<>();
+    private final Map<Long, Integer> doubleConstants = new HashMap<>();
+    private final Map<String, Integer> methodConstants = new HashMap<>();
+    private int constantPoolSize = 1;
+    private int mathClass;
+
+    private BytecodeGenerator() {
+    }
+
+    /**
+     * Generates and loads class calculating program.
+     *
+     * @param instructions  program instructions.
+     * @param constants     program constants.
+     * @param maxStackDepth maximum depth of operands stack.
+     * @return function calculating program over values of variables or null if program is too long.
+     */
+    static ToDoubleFunction<double[]> generate(int[] instructions, double[] constants, int maxStackDepth) {
+        if (instructions.length > MAX_INSTRUCTIONS) {
+            return null;
+        }
+        String className = CLASS_NAME_PREFIX + CLASS_COUNTER.incrementAndGet();
+        try {
+            byte[] classFile = new BytecodeGenerator().writeClass(className, instructions, constants, maxStackDepth);
+            Class<?> generatedClass = new GeneratedClassLoader().define(className.replace('/', '.'), classFile);
+            @SuppressWarnings("unchecked")
+            ToDoubleFunction<double[]> function =
+                    (ToDoubleFunction<double[]>) generatedClass.getDeclaredConstructor().newInstance();
+            return function;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Generated class can not be instantiated", e);
+        }
+    }
+
+    private byte[] writeClass(String className, int[] instructions, double[] constants, int maxStackDepth)
+            throws IOException {
+        int thisClass = classConstant(className);
+        int objectClass = classConstant("java/lang/Object");
+        int functionInterface = classConstant("java/util/function/ToDoubleFunction");
+        int doubleArrayClass = classConstant("[D");
+        int objectConstructor = methodConstant(objectClass, "<init>", "()V");
+        int constructorName = utf8Constant("<init>");
+        int constructorDescriptor = utf8Constant("()V");
+        int methodName = utf8Constant("applyAsDouble");
+        int methodDescriptor = utf8Constant("(Ljava/lang/Object;)D");
+        int codeAttribute = utf8Constant("Code");
+        mathClass = classConstant(MATH_CLASS);
+
+        ByteArrayOutputStream constructorCode = new ByteArrayOutputStream();
+        constructorCode.write(ALOAD_0);
+        constructorCode.write(INVOKESPECIAL);
+        writeShort(constructorCode, objectConstructor);
+        constructorCode.write(RETURN);
+
+        ByteArrayOutputStream methodCode = new ByteArrayOutputStream();
+        methodCode.write(ALOAD_1);
+        methodCode.write(CHECKCAST);
+        writeShort(methodCode, doubleArrayClass);
+        methodCode.write(ASTORE_2);
+        for (int instruction : instructions) {
+            writeInstruction(methodCode, instruction, constants);
+        }
+        methodCode.write(DRETURN);
+
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        DataOutputStream classFile = new DataOutputStream(classBytes);
+        classFile.writeInt(CLASS_FILE_MAGIC);
+        classFile.writeShort(0);
+        classFile.writeShort(JAVA_8_VERSION);
+        classFile.writeShort(constantPoolSize);
+        constantPoolBytes.writeTo(classFile);
+        classFile.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        classFile.writeShort(thisClass);
+        classFile.writeShort(objectClass);
+        classFile.writeShort(1);
+        classFile.writeShort(functionInterface);
+        classFile.writeShort(0);
+        classFile.writeShort(2);
+        writeMethod(classFile, constructorName, constructorDescriptor, codeAttribute, 1, 1, constructorCode);
+        writeMethod(classFile, methodName, methodDescriptor, codeAttribute,
+                2 * maxStackDepth + 2, 3, methodCode);
+        classFile.writeShort(0);
+        return classBytes.toByteArray();
+    }
+
+    private void writeInstruction(ByteArrayOutputStream code, int instruction, double[] constants)
+            throws IOException {
+        int argument = instruction >>> OPCODE_BITS;
+        switch (instruction & OPCODE_MASK) {
+            case PUSH_CONSTANT:
+                double constant = constants[argument];
+                if (Double.doubleToRawLongBits(constant) == 0L) {
+                    code.write(DCONST_0);
+                } else if (constant == 1.0) {
+                    code.write(DCONST_1);
+                } else {
+                    code.write(LDC2_W);
+                    writeShort(code, doubleConstant(constant));
+                }
+                break;
+            case PUSH_VARIABLE:
+                code.write(ALOAD_2);
+                if (argument <= Byte.MAX_VALUE) {
+                    code.write(BIPUSH);
+                    code.write(argument);
+                } else if (argument <= Short.MAX_VALUE) {
+                    code.write(SIPUSH);
+                    writeShort(code, argument);
+                } else {
+                    // sipush operand is a signed 16-bit value
+                    code.write(LDC_W);
+                    writeShort(code, intConstant(argument));
+                }
+                code.write(DALOAD);
+                break;
+            case ADD:
+                code.write(DADD);
+                break;
+            case SUBTRACT:
+                code.write(DSUB);
+                break;
+            case MULTIPLY:
+                code.write(DMUL);
+                break;
+            case DIVIDE:
+                code.write(DDIV);
+                break;
+            case REMAINDER:
+                code.write(DREM);
+                break;
+            case NEGATE:
+                code.write(DNEG);
+                break;
+            case POWER:
+                invokeMath(code, "pow", BINARY_FUNCTION);
+                break;
+            case MIN:
+                invokeMath(code, "min", BINARY_FUNCTION);
+                break;
+            case MAX:
+                invokeMath(code, "max", BINARY_FUNCTION);
+                break;
+            case SQRT:
+                invokeMath(code, "sqrt", UNARY_FUNCTION);
+                break;
+            case ABS:
+                invokeMath(code, "abs", UNARY_FUNCTION);
+                break;
+            default:
+                throw new UnsupportedOperationException("Instruction " + instruction + " is not supported");
+        }
+    }
+
+    private void invokeMath(ByteArrayOutputStream code, String name, String descriptor) throws IOException {
+        Integer method = methodConstants.get(name);
+        if (method == null) {
+            method = methodConstant(mathClass, name, descriptor);
+            methodConstants.put(name, method);
+        }
+        code.write(INVOKESTATIC);
+        writeShort(code, method);
+    }
+
+    private static void writeMethod(DataOutputStream classFile, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, ByteArrayOutputStream code) throws IOException {
+        classFile.writeShort(ACC_PUBLIC);
+        classFile.writeShort(name);
+        classFile.writeShort(descriptor);
+        classFile.writeShort(1);
+        classFile.writeShort(codeAttribute);
+        classFile.writeInt(12 + code.size());
+        classFile.writeShort(maxStack);
+        classFile.writeShort(maxLocals);
+        classFile.writeInt(code.size());
+        code.writeTo(classFile);
+        classFile.writeShort(0);
+        classFile.writeShort(0);
+    }
+
+    private static void writeShort(ByteArrayOutputStream code, int value) {
+        code.write(value >>> 8);
+        code.write(value);
+    }
+
+    private int utf8Constant(String value) throws IOException {
+        Integer index = utf8Constants.get(value);
+        if (index == null) {
+            constantPool.writeByte(CONSTANT_UTF8);
+            constantPool.writeUTF(value);
+            index = constantPoolSize++;
+            utf8Constants.put(value, index);
+        }
+        return index;
+    }
+
+    private int classConstant(String name) throws IOException {
+        int nameIndex = utf8Constant(name);
+        constantPool.writeByte(CONSTANT_CLASS);
+        constantPool.writeShort(nameIndex);
+        return constantPoolSize++;
+    }
+
+    private int methodConstant(int ownerClass, String name, String descriptor) throws IOException {
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        constantPool.writeByte(CONSTANT_NAME_AND_TYPE);
+        constantPool.writeShort(nameIndex);
+        constantPool.writeShort(descriptorIndex);
+        int nameAndType = constantPoolSize++;
+        constantPool.writeByte(CONSTANT_METHOD_REF);
+        constantPool.writeShort(ownerClass);
+        constantPool.writeShort(nameAndType);
+        return constantPoolSize++;
+    }
+
+    private int intConstant(int value) throws IOException {
+        Integer index = intConstants.get(value);
+        if (index == null) {
+            constantPool.writeByte(CONSTANT_INTEGER);
+            constantPool.writeInt(value);
+            index = constantPoolSize++;
+            intConstants.put(value, index);
+        }
+        return index;
+    }
+
+    private int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        Integer index = doubleConstants.get(bits);
+        if (index == null) {
+            try {
+                constantPool.writeByte(CONSTANT_DOUBLE);
+                constantPool.writeLong(bits);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            index = constantPoolSize;
+            constantPoolSize += 2;
+            doubleConstants.put(bits, index);
+        }
+        return index;
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader() {
+            super(BytecodeGenerator.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+}
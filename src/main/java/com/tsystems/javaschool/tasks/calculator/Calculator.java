@@ -1,142 +1,414 @@
 package com.tsystems.javaschool.tasks.calculator;
 
-import java.util.EmptyStackException;
-import java.util.Stack;
-
-import static com.tsystems.javaschool.tasks.calculator.PostfixConverter.convertToPostfixNotation;
-import static com.tsystems.javaschool.tasks.calculator.PostfixConverter.isOperator;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 public class Calculator {
 
+    private static final ThreadLocal<ExpressionEvaluator> EVALUATORS =
+            ThreadLocal.withInitial(ExpressionEvaluator::new);
+    private static final ThreadLocal<DecimalEvaluator> DECIMAL_EVALUATORS =
+            ThreadLocal.withInitial(DecimalEvaluator::new);
+
+    private final ResultCache cache;
+    private final MathContext mathContext;
+    private final EvaluationListener listener;
+
+    /**
+     * Creates calculator which evaluates every statement.
+     */
+    public Calculator() {
+        this(null);
+    }
+
+    /**
+     * Creates calculator which keeps results of evaluated statements in cache.
+     *
+     * @param cache cache of results, can be shared between calculators; null disables caching.
+     */
+    public Calculator(ResultCache cache) {
+        this(cache, null);
+    }
+
+    /**
+     * Creates calculator which evaluates statements in exact decimal arithmetic, so e.g.
+     * <code>0.1 + 0.2</code> is exactly <code>0.3</code> and integers are not limited by double precision.
+     * Every operation is performed as by {@link java.math.BigDecimal} with given context, division by zero
+     * and non-terminating division with unlimited precision give null result. The result is rounded to
+     * 4 fraction digits with the rounding mode of the context.
+     * Compiled expressions are always calculated in double arithmetic.
+     *
+     * @param cache       cache of results, must not be shared with calculators using other arithmetic;
+     *                    null disables caching.
+     * @param mathContext precision and rounding mode of operations; null selects double arithmetic.
+     */
+    public Calculator(ResultCache cache, MathContext mathContext) {
+        this(cache, mathContext, null);
+    }
+
+    /**
+     * Creates calculator which reports durations of evaluation phases, lengths of statements and reasons
+     * of null results to listener, e.g. {@link EvaluationMetrics}. Statements evaluated by
+     * {@link #evaluate(String)} and {@link #evaluateAll(List)} and its overloads for lists and iterators
+     * are reported; streams of statements and compiled expressions are not.
+     *
+     * @param cache       cache of results, null disables caching.
+     * @param mathContext precision and rounding mode of operations; null selects double arithmetic.
+     * @param listener    receiver of measurements; null disables measuring.
+     */
+    public Calculator(ResultCache cache, MathContext mathContext, EvaluationListener listener) {
+        this.cache = cache;
+        this.mathContext = mathContext;
+        this.listener = listener;
+    }
+
     /**
      * Evaluates statement represented as string.
      *
      * @param statement mathematical statement containing digits, '.' (dot) as decimal mark,
-     *                  parentheses, operations signs '+', '-', '*', '/'<br>
+     *                  parentheses, operations signs '+', '-', '*', '/', '%', '^', unary minus and
+     *                  functions min, max, sqrt, abs<br>
      *                  Example: <code>(1 + 38) * 4.5 - 1 / 2.</code>
-     * @return string value containing result of evaluation or null if statement is invalid
+     * @return string value containing result of evaluation or null if statement is invalid,
+     * the same as {@link #tryEvaluate(String)} gives as {@link EvaluationResult#getValue()}
      */
     public String evaluate(String statement) {
-        try {
-            String postfixNotation = convertToPostfixNotation(statement);
-            Double calculatedResult = calculateResult(postfixNotation);
-            if (calculatedResult == null ||
-                    calculatedResult.isInfinite() ||
-                    calculatedResult.isNaN()) {
-                return null;
-            }
-            return getResultString(calculatedResult);
-        } catch (IllegalArgumentException e) {
+        if (statement == null) {
             return null;
         }
+        if (listener != null) {
+            return evaluateMeasured(statement);
+        }
+        if (cache != null) {
+            return cache.computeIfAbsent(statement, this::evaluateStatement);
+        }
+        return evaluateStatement(statement);
     }
 
     /**
-     * Calculates expression in postfix form.
+     * Evaluates statement represented as any character sequence, e.g. {@link StringBuilder} or
+     * {@link java.nio.CharBuffer}, without copying it into a string unless results cache is used.
      *
-     * @param postfixNotation statement in postfix notation.
-     * @return calculated value.
+     * @param statement mathematical statement in the same format as for {@link #evaluate(String)},
+     *                  must not be changed during evaluation.
+     * @return string value containing result of evaluation or null if statement is invalid
      */
-    private static Double calculateResult(String postfixNotation) {
-        Stack<Double> operandStack = new Stack<>();
+    public String evaluate(CharSequence statement) {
+        if (statement == null) {
+            return null;
+        }
+        if (statement instanceof String || cache != null) {
+            return evaluate(statement.toString());
+        }
+        if (listener != null) {
+            return evaluateMeasured(statement, statement.length());
+        }
+        return evaluateStatement(statement);
+    }
 
-        boolean isUnderscore = false;
-        StringBuilder numberString = new StringBuilder();
+    /**
+     * Evaluates statement of ASCII bytes in buffer, heap or direct, without decoding or copying it
+     * unless results cache is used. Bytes outside of ASCII are invalid symbols.
+     *
+     * @param buffer buffer containing statement, its position and limit are not changed.
+     * @param offset absolute index of the first byte of statement.
+     * @param length number of bytes of statement.
+     * @return string value containing result of evaluation or null if statement is invalid or buffer is null
+     * @throws IllegalArgumentException if the range is out of the buffer limit.
+     */
+    public String evaluate(ByteBuffer buffer, int offset, int length) {
+        if (buffer == null) {
+            return null;
+        }
+        checkRange(offset, length, buffer.limit());
+        return evaluate(new AsciiCharSequence().set(buffer, offset, length));
+    }
 
-        for (int i = 0; i < postfixNotation.length(); i++) {
-            if (postfixNotation.charAt(i) == '_') {
-                isUnderscore = true;
-                if (i > 0 && numberString.length() > 0) operandStack.push(Double.parseDouble(numberString.toString()));
-                numberString.delete(0, numberString.length());
-                continue;
-            }
-            boolean isOperator = isOperator(postfixNotation.charAt(i));
-            if (isUnderscore) {
-                if (!isOperator) {
-                    numberString.append(postfixNotation.charAt(i));
-                    continue;
-                } else {
-                    operandStack.push(Double.parseDouble(numberString.toString()));
-                    numberString.delete(0, numberString.length());
-                    isUnderscore = false;
-                }
-            }
-            if (isOperator) {
-                try {
-                    Double secondDigit = operandStack.pop();
-                    Double firstDigit = operandStack.pop();
-                    double result = calculateSingleOperations(firstDigit, secondDigit, postfixNotation.charAt(i));
-                    operandStack.push(result);
-                } catch (EmptyStackException e) {
-                    return null;
-                }
+    /**
+     * Evaluates statement of ASCII bytes in array without decoding or copying it unless results cache is used.
+     * Bytes outside of ASCII are invalid symbols.
+     *
+     * @param bytes  array containing statement.
+     * @param offset index of the first byte of statement.
+     * @param length number of bytes of statement.
+     * @return string value containing result of evaluation or null if statement is invalid or array is null
+     * @throws IllegalArgumentException if the range is out of the array.
+     */
+    public String evaluate(byte[] bytes, int offset, int length) {
+        if (bytes == null) {
+            return null;
+        }
+        checkRange(offset, length, bytes.length);
+        return evaluate(new AsciiCharSequence().set(bytes, offset, length));
+    }
+
+    private static void checkRange(int offset, int length, int size) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IllegalArgumentException("Range " + offset + "+" + length + " is out of bounds 0-" + size);
+        }
+    }
+
+    /**
+     * Evaluates statement as {@link #evaluate(String)} does, telling why it has no result instead of returning
+     * null. Incorrect statements are rejected without exceptions, so they are about as cheap as correct ones.
+     * Results found in cache do not keep the reasons, so failed statements are evaluated again.
+     *
+     * @param statement mathematical statement in the same format as for {@link #evaluate(String)}.
+     * @return value of statement or error with its position; null statement is a syntax error at position 0.
+     */
+    public EvaluationResult tryEvaluate(String statement) {
+        if (statement == null) {
+            return EvaluationResult.failure(EvaluationError.SYNTAX_ERROR, 0);
+        }
+        if (cache != null || listener != null) {
+            String result = evaluate(statement);
+            if (result != null) {
+                return EvaluationResult.success(result);
             }
         }
+        if (mathContext != null) {
+            DecimalEvaluator evaluator = DECIMAL_EVALUATORS.get();
+            String result = evaluator.evaluate(statement, mathContext);
+            return result != null ? EvaluationResult.success(result)
+                    : EvaluationResult.failure(evaluator.getError(), evaluator.errorPosition());
+        }
+        ExpressionEvaluator evaluator = EVALUATORS.get();
+        double value = evaluator.evaluate(statement);
+        String result = formatResult(value);
+        return result != null ? EvaluationResult.success(result)
+                : EvaluationResult.failure(evaluator.errorOf(value), evaluator.errorPosition());
+    }
 
-        try {
-            return operandStack.pop();
-        } catch (EmptyStackException e) {
+    /**
+     * Evaluates statement reporting measurements to listener.
+     * Time of cache lookup excludes evaluation on cache miss.
+     */
+    private String evaluateMeasured(String statement) {
+        int length = statement.length();
+        if (cache == null) {
+            return evaluateMeasured(statement, length);
+        }
+        long start = System.nanoTime();
+        long[] evaluationNanos = new long[1];
+        String result = cache.computeIfAbsent(statement, key -> {
+            long evaluationStart = System.nanoTime();
+            String evaluated = evaluateMeasured(key, length);
+            evaluationNanos[0] = System.nanoTime() - evaluationStart;
+            return evaluated;
+        });
+        long lookupNanos = System.nanoTime() - start - evaluationNanos[0];
+        listener.phaseCompleted(EvaluationListener.Phase.CACHE_LOOKUP, lookupNanos);
+        return result;
+    }
+
+    private String evaluateMeasured(CharSequence statement, int length) {
+        if (mathContext != null) {
+            DecimalEvaluator evaluator = DECIMAL_EVALUATORS.get();
+            long start = System.nanoTime();
+            String result = evaluator.evaluate(statement, mathContext);
+            listener.phaseCompleted(EvaluationListener.Phase.EVALUATION, System.nanoTime() - start);
+            listener.statementEvaluated(length, result == null ? evaluator.getError() : null);
+            return result;
+        }
+
+        ExpressionEvaluator evaluator = EVALUATORS.get();
+        long start = System.nanoTime();
+        double value = evaluator.evaluate(statement);
+        long evaluated = System.nanoTime();
+        listener.phaseCompleted(EvaluationListener.Phase.EVALUATION, evaluated - start);
+        if (evaluator.error() != null) {
+            listener.statementEvaluated(length, evaluator.error());
             return null;
         }
+        String result = formatResult(value);
+        listener.phaseCompleted(EvaluationListener.Phase.FORMATTING, System.nanoTime() - evaluated);
+        listener.statementEvaluated(length, evaluator.errorOf(value));
+        return result;
+    }
+
+    /**
+     * Evaluates statement bypassing cache.
+     *
+     * @param statement mathematical statement, must not be null.
+     * @return string value containing result of evaluation or null if statement is invalid
+     */
+    private String evaluateStatement(CharSequence statement) {
+        if (mathContext != null) {
+            return evaluateStatement(DECIMAL_EVALUATORS.get(), statement, mathContext);
+        }
+        return evaluateStatement(EVALUATORS.get(), statement);
+    }
+
+    /**
+     * Evaluates statement with given evaluator.
+     *
+     * @param evaluator evaluator owned by the current thread.
+     * @param statement mathematical statement, must not be null.
+     * @return string value containing result of evaluation or null if statement is invalid
+     */
+    static String evaluateStatement(ExpressionEvaluator evaluator, CharSequence statement) {
+        return formatResult(evaluator.evaluate(statement));
+    }
+
+    /**
+     * Evaluates statement in decimal arithmetic with given evaluator.
+     *
+     * @param evaluator   evaluator owned by the current thread.
+     * @param statement   mathematical statement, must not be null.
+     * @param mathContext precision and rounding mode of operations.
+     * @return string value containing result of evaluation or null if statement is invalid
+     */
+    static String evaluateStatement(DecimalEvaluator evaluator, CharSequence statement, MathContext mathContext) {
+        return evaluator.evaluate(statement, mathContext);
+    }
+
+    /**
+     * Evaluates statements in parallel on all available cores.
+     *
+     * @param statements statements to be evaluated, must not be null.
+     * @return results in the order of statements, null for invalid ones.
+     * @throws IllegalArgumentException if list is null.
+     */
+    public List<String> evaluateAll(List<String> statements) {
+        return evaluateAll(statements, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates statements in parallel on executor, e.g. fixed thread pool or virtual threads.
+     *
+     * @param statements statements to be evaluated, must not be null.
+     * @param executor   executor running batches of statements, must not be null.
+     * @return results in the order of statements, null for invalid ones.
+     * @throws IllegalArgumentException if list or executor is null.
+     */
+    public List<String> evaluateAll(List<String> statements, Executor executor) {
+        if (statements == null || executor == null) {
+            throw new IllegalArgumentException("Statements and executor must not be null");
+        }
+        return new BulkEvaluator(this, executor, maxBatchesInFlight()).evaluate(statements);
     }
 
     /**
-     * Perform a single operations.
+     * Evaluates statements in parallel on executor passing results to consumer in the order of statements.
+     * Statements are read in batches only when previous results are consumed, so the amount of memory used
+     * does not depend on the number of statements and a slow consumer slows down reading.
      *
-     * @param firstDigit  participate in operation.
-     * @param secondDigit participate in operation.
-     * @param operator    type of operation.
-     * @return result of operation.
-     * @throws IllegalArgumentException when character operator is incorrect.
+     * @param statements iterator of statements to be evaluated, e.g. of a stream, must not be null.
+     * @param results    consumer of results, called on the current thread, must not be null.
+     * @param executor   executor running batches of statements, must not be null.
+     * @return number of evaluated statements.
+     * @throws IllegalArgumentException if any argument is null.
      */
-    private static double calculateSingleOperations(Double firstDigit, Double secondDigit, Character operator) {
-        switch (operator) {
-            case '+':
-                return firstDigit + secondDigit;
-            case '-':
-                return firstDigit - secondDigit;
-            case '*':
-                return firstDigit * secondDigit;
-            case '/':
-                return firstDigit / secondDigit;
-            default:
-                throw new IllegalArgumentException("Illegal operator");
+    public long evaluateAll(Iterator<String> statements, Consumer<? super String> results, Executor executor) {
+        if (statements == null || results == null || executor == null) {
+            throw new IllegalArgumentException("Statements, results and executor must not be null");
+        }
+        return new BulkEvaluator(this, executor, maxBatchesInFlight()).evaluate(statements, results);
+    }
 
+    private static int maxBatchesInFlight() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * Evaluates file of statements, one statement per line, and writes results into another file,
+     * one result per line, {@code null} for invalid statements.
+     * Statements are parsed straight from the read buffer and results are written as soon as the buffer
+     * fills up, so memory usage does not depend on the file size. Results cache is not used.
+     *
+     * @param in  file with ASCII statements.
+     * @param out file to be created or overwritten with results, must differ from the file of statements.
+     * @return number of evaluated statements.
+     * @throws IOException              if reading or writing fails.
+     * @throws IllegalArgumentException if both paths locate the same file, which would be truncated before
+     *                                  it is read.
+     */
+    public long evaluateAll(Path in, Path out) throws IOException {
+        if (Files.exists(out) && Files.isSameFile(in, out)) {
+            throw new IllegalArgumentException("Statements and results must be in different files");
         }
+        try (FileChannel input = FileChannel.open(in, StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(out, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return new StreamEvaluator(mathContext).evaluate(input, output);
+        }
+    }
+
+    /**
+     * Evaluates statements read line by line and writes results, one result per line, {@code null} for invalid
+     * statements. Results cache is not used.
+     *
+     * @param in  reader of statements.
+     * @param out writer receiving results, is flushed but not closed.
+     * @return number of evaluated statements.
+     * @throws IOException if reading or writing fails.
+     */
+    public long evaluateAll(Reader in, Writer out) throws IOException {
+        return new StreamEvaluator(mathContext).evaluate(in, out);
     }
 
     /**
-     * Checks if double value does not contain any decimal part.
+     * Compiles statement so it can be evaluated many times without parsing.
      *
-     * @param variable double variable for check.
-     * @return true if double does not contain any decimal part.
+     * @param statement mathematical statement in the same format as for {@link #evaluate(String)},
+     *                  can also contain variables, e.g. <code>(a + 38) * rate - b / 2</code>.
+     *                  Variables are numbered in order of their first occurrence.
+     * @return immutable compiled statement or null if statement is invalid
      */
-    private boolean isInteger(Double variable) {
-        return (variable == Math.floor(variable)) && !Double.isInfinite(variable);
+    public CompiledExpression compile(String statement) {
+        if (statement == null) {
+            return null;
+        }
+        try {
+            return new ExpressionCompiler().compile(statement);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     /**
-     * Forms result string from calculated result.
+     * Compiles statement with variables so it can be evaluated many times without parsing.
      *
-     * @param result to be convert to string
-     * @return string with integer value if input value does not contain any significant digit,
-     * rounded to 4 significant digits otherwise.
+     * @param statement mathematical statement in the same format as for {@link #evaluate(String)},
+     *                  can also contain variables, e.g. <code>(a + 38) * rate - b / 2</code>.
+     * @param variables names of variables in order of their values.
+     * @return immutable compiled statement or null if statement is invalid or uses undeclared variables
+     * @throws IllegalArgumentException if variables are null or not unique.
      */
-    private String getResultString(Double result) {
-        if (isInteger(result)) {
-            return Integer.valueOf(result.intValue()).toString();
+    public CompiledExpression compile(String statement, String... variables) {
+        if (variables == null) {
+            throw new IllegalArgumentException("Variables must not be null");
+        }
+        List<String> declaredVariables = ExpressionCompiler.declareVariables(variables);
+        if (statement == null) {
+            return null;
+        }
+        try {
+            return new ExpressionCompiler().compile(statement, declaredVariables);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        return String.valueOf(roundResult(result));
     }
 
     /**
-     * Round double result to 4 significant digit.
+     * Forms result string from calculated value, see {@link ResultFormatter}.
      *
-     * @param result dto be rounded.
-     * @return result with 4 significant digit.
+     * @param calculatedResult value of the statement.
+     * @return result string or null if value is not a finite number.
      */
-    private Double roundResult(Double result) {
-        double scale = Math.pow(10, 4);
-        return Math.round(result * scale) / scale;
+    static String formatResult(double calculatedResult) {
+        return ResultFormatter.toString(calculatedResult);
     }
 }
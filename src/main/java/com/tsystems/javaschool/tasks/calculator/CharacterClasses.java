@@ -0,0 +1,101 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+/**
+ * Classes of symbols of statements.
+ * <p>
+ * Every ASCII symbol has a precomputed set of classes in a 128-entry table, so checking a symbol is a bounds
+ * check and a single array load, with no boxing and no branches per class. Symbols outside of ASCII belong
+ * to no class, none of them is accepted by the parser.
+ */
+final class CharacterClasses {
+    static final int DIGIT = 1;
+    static final int DECIMAL_MARK = 1 << 1;
+    static final int IDENTIFIER_START = 1 << 2;
+    static final int IDENTIFIER_PART = 1 << 3;
+    static final int WHITESPACE = 1 << 4;
+    static final int ARITHMETIC_OPERATOR = 1 << 5;
+    static final int OPENING_BRACKET = 1 << 6;
+    static final int CLOSING_BRACKET = 1 << 7;
+
+    private static final int SYMBOLS = 128;
+    private static final byte[] CLASSES = new byte[SYMBOLS];
+
+    static {
+        for (char symbol = '0'; symbol <= '9'; symbol++) {
+            define(symbol, DIGIT | IDENTIFIER_PART);
+        }
+        for (char symbol = 'a'; symbol <= 'z'; symbol++) {
+            define(symbol, IDENTIFIER_START | IDENTIFIER_PART);
+            define(Character.toUpperCase(symbol), IDENTIFIER_START | IDENTIFIER_PART);
+        }
+        define('_', IDENTIFIER_START | IDENTIFIER_PART);
+        define('.', DECIMAL_MARK);
+        // the same symbols as matched by \s regex
+        for (char symbol : new char[]{' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+            define(symbol, WHITESPACE);
+        }
+        for (char symbol : new char[]{'+', '-', '*', '/'}) {
+            define(symbol, ARITHMETIC_OPERATOR);
+        }
+        define('(', OPENING_BRACKET);
+        define(')', CLOSING_BRACKET);
+    }
+
+    private CharacterClasses() {
+    }
+
+    private static void define(char symbol, int classes) {
+        CLASSES[symbol] |= classes;
+    }
+
+    /**
+     * @param symbol symbol of statement.
+     * @return classes of symbol combined by bitwise or, 0 if symbol is not ASCII.
+     */
+    static int classesOf(char symbol) {
+        return symbol < SYMBOLS ? CLASSES[symbol] & 0xFF : 0;
+    }
+
+    /**
+     * @param symbol  symbol of statement.
+     * @param classes classes combined by bitwise or.
+     * @return {@code true} if symbol belongs to any of classes.
+     */
+    static boolean is(char symbol, int classes) {
+        return (classesOf(symbol) & classes) != 0;
+    }
+
+    /**
+     * @param symbol to be checked.
+     * @return {@code true} if symbol is ASCII digit.
+     */
+    static boolean isDigit(char symbol) {
+        return is(symbol, DIGIT);
+    }
+
+    /**
+     * @param symbol to be checked.
+     * @return {@code true} if symbol is latin letter or underscore.
+     */
+    static boolean isIdentifierStart(char symbol) {
+        return is(symbol, IDENTIFIER_START);
+    }
+
+    /**
+     * @param symbol to be checked.
+     * @return {@code true} if symbol is latin letter, ASCII digit or underscore.
+     */
+    static boolean isIdentifierPart(char symbol) {
+        return is(symbol, IDENTIFIER_PART);
+    }
+
+    /**
+     * Checks if symbol is one of whitespace symbols matched by {@code \s} regex.
+     *
+     * @param symbol to be checked.
+     * @return {@code true} if symbol is whitespace.
+     */
+    static boolean isWhitespace(char symbol) {
+        return is(symbol, WHITESPACE);
+    }
+}
@@ -0,0 +1,285 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Statement which was parsed once and can be evaluated many times.
+ * <p>
+ * The statement is kept as a flat postfix program: every instruction holds an opcode in its lower
+ * bits and an argument (index of a constant or a variable) in the upper ones. Evaluation only walks
+ * the program, no parsing or validation is performed. Instances are immutable and can be shared
+ * between threads.
+ * <p>
+ * Values of variables are passed as a {@code double[]} indexed as {@link #getVariables()}, so the same
+ * expression can be evaluated against many bindings without string concatenation or parsing.
+ * <p>
+ * Expressions created by {@link #withJitThreshold(int)} translate themselves into JVM bytecode once they are
+ * calculated often enough, see {@link BytecodeGenerator}. If translation is not possible the program keeps
+ * being interpreted. Hot state of the translation is the only mutable state of an expression.
+ */
+public final class CompiledExpression {
+    static final int OPCODE_BITS = 8;
+    static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+    /**
+     * Arguments of instructions, indices of constants and variables, must be below this limit.
+     */
+    static final int MAX_ARGUMENT = 1 << (Integer.SIZE - OPCODE_BITS);
+
+    static final int PUSH_CONSTANT = 0;
+    static final int ADD = 1;
+    static final int SUBTRACT = 2;
+    static final int MULTIPLY = 3;
+    static final int DIVIDE = 4;
+    static final int PUSH_VARIABLE = 5;
+    static final int NEGATE = 6;
+    static final int POWER = 7;
+    static final int REMAINDER = 8;
+    static final int MIN = 9;
+    static final int MAX = 10;
+    static final int SQRT = 11;
+    static final int ABS = 12;
+
+    private static final double[] NO_VALUES = new double[0];
+
+    private final int[] instructions;
+    private final double[] constants;
+    private final List<String> variables;
+    private final int maxStackDepth;
+    private final boolean divisionByZero;
+
+    private final int jitThreshold;
+    private int invocations;
+    private volatile boolean generationAttempted;
+    private volatile ToDoubleFunction<double[]> generatedFunction;
+
+    CompiledExpression(int[] instructions, double[] constants, List<String> variables, int maxStackDepth,
+                       boolean divisionByZero) {
+        this(instructions, constants, variables, maxStackDepth, divisionByZero, 0);
+    }
+
+    private CompiledExpression(int[] instructions, double[] constants, List<String> variables, int maxStackDepth,
+                               boolean divisionByZero, int jitThreshold) {
+        this.instructions = instructions;
+        this.constants = constants;
+        this.variables = variables;
+        this.maxStackDepth = maxStackDepth;
+        this.divisionByZero = divisionByZero;
+        this.jitThreshold = jitThreshold;
+    }
+
+    /**
+     * Creates the same expression which is translated into JVM bytecode after it was calculated
+     * the given number of times.
+     *
+     * @param invocations number of calculations after which the expression is translated, must be positive.
+     * @return new expression sharing the program with this one.
+     * @throws IllegalArgumentException if number of invocations is not positive.
+     */
+    public CompiledExpression withJitThreshold(int invocations) {
+        if (invocations <= 0) {
+            throw new IllegalArgumentException("Number of invocations must be positive");
+        }
+        return new CompiledExpression(instructions, constants, variables, maxStackDepth, divisionByZero,
+                invocations);
+    }
+
+    /**
+     * Checks if the statement divides by an operand which is zero regardless of the values of variables,
+     * e.g. <code>a / (5 - 5)</code>. Such a division gives an infinite or NaN value on every evaluation.
+     *
+     * @return {@code true} if division by zero was detected at compile time.
+     */
+    public boolean hasDivisionByZero() {
+        return divisionByZero;
+    }
+
+    /**
+     * @return number of instructions of the simplified program.
+     */
+    int getProgramSize() {
+        return instructions.length;
+    }
+
+    /**
+     * @return instructions of the program, must not be modified.
+     */
+    int[] getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * @return constants of the program, must not be modified.
+     */
+    double[] getConstants() {
+        return constants;
+    }
+
+    /**
+     * @return {@code true} if the expression is calculated by generated bytecode.
+     */
+    public boolean isTranslated() {
+        return generatedFunction != null;
+    }
+
+    /**
+     * @return unmodifiable list of variable names, index of a name is the index of its value.
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Finds index of variable value.
+     *
+     * @param variable name of variable.
+     * @return index of variable value or -1 if the statement has no such variable.
+     */
+    public int indexOf(String variable) {
+        return variables.indexOf(variable);
+    }
+
+    /**
+     * Evaluates the compiled statement.
+     *
+     * @param values values of variables indexed as {@link #getVariables()}.
+     * @return string value containing result of evaluation, rounded as in {@link Calculator#evaluate(String)},
+     * or null if the result is not a finite number (e.g. division by zero occurred)
+     * @throws IllegalArgumentException if there are fewer values than variables.
+     */
+    public String evaluate(double... values) {
+        return Calculator.formatResult(calculate(values));
+    }
+
+    /**
+     * Calculates the compiled statement without rounding.
+     *
+     * @param values values of variables indexed as {@link #getVariables()}.
+     * @return calculated value, can be infinite or NaN if division by zero occurred.
+     * @throws IllegalArgumentException if there are fewer values than variables.
+     */
+    public double calculate(double... values) {
+        if (values == null) {
+            values = NO_VALUES;
+        }
+        if (values.length < variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " values of variables "
+                    + variables + " but got " + values.length);
+        }
+
+        ToDoubleFunction<double[]> function = generatedFunction;
+        if (function != null) {
+            return function.applyAsDouble(values);
+        }
+        if (jitThreshold > 0 && !generationAttempted && ++invocations >= jitThreshold) {
+            generateFunction();
+        }
+        return interpret(values);
+    }
+
+    private double interpret(double[] values) {
+        double[] stack = new double[maxStackDepth];
+        int size = 0;
+        for (int instruction : instructions) {
+            switch (instruction & OPCODE_MASK) {
+                case PUSH_CONSTANT:
+                    stack[size++] = constants[instruction >>> OPCODE_BITS];
+                    break;
+                case PUSH_VARIABLE:
+                    stack[size++] = values[instruction >>> OPCODE_BITS];
+                    break;
+                case ADD:
+                    size--;
+                    stack[size - 1] += stack[size];
+                    break;
+                case SUBTRACT:
+                    size--;
+                    stack[size - 1] -= stack[size];
+                    break;
+                case MULTIPLY:
+                    size--;
+                    stack[size - 1] *= stack[size];
+                    break;
+                case DIVIDE:
+                    size--;
+                    stack[size - 1] /= stack[size];
+                    break;
+                default:
+                    int opcode = instruction & OPCODE_MASK;
+                    if (Operators.arity(opcode) == 1) {
+                        stack[size - 1] = Operators.apply(opcode, stack[size - 1], 0);
+                    } else {
+                        size--;
+                        stack[size - 1] = Operators.apply(opcode, stack[size - 1], stack[size]);
+                    }
+                    break;
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Translates the program into bytecode. Invocations counter is not synchronized, so the method can be
+     * called several times, but only the first call performs translation. Programs which are too long for
+     * translation or fail to load stay interpreted.
+     */
+    private synchronized void generateFunction() {
+        if (generationAttempted) {
+            return;
+        }
+        generationAttempted = true;
+        try {
+            generatedFunction = BytecodeGenerator.generate(instructions, constants, maxStackDepth);
+        } catch (RuntimeException | LinkageError e) {
+            // the program stays interpreted
+        }
+    }
+
+    /**
+     * Calculates the compiled statement for many bindings at once.
+     * Operations are applied to whole blocks of rows, which is considerably faster than calling
+     * {@link #calculate(double...)} for every row.
+     *
+     * @param columns  values of variables indexed as {@link #getVariables()}, each column must contain
+     *                 at least as many values as there are rows.
+     * @param results  receives calculated values without rounding, its length is the number of rows.
+     * @param validity receives validity bitmap: bit {@code i % 64} of word {@code i / 64} is set if the result
+     *                 of row {@code i} is a finite number, i.e. {@link #evaluate(double...)} would not return
+     *                 null for it. Can be null if not needed.
+     * @return number of rows with finite results.
+     * @throws IllegalArgumentException if arguments do not match the number of variables or rows.
+     */
+    public int calculateAll(double[][] columns, double[] results, long[] validity) {
+        if (columns == null || results == null) {
+            throw new IllegalArgumentException("Columns and results must not be null");
+        }
+        if (columns.length < variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " columns of variables "
+                    + variables + " but got " + columns.length);
+        }
+        for (int i = 0; i < variables.size(); i++) {
+            if (columns[i] == null || columns[i].length < results.length) {
+                throw new IllegalArgumentException("Column of variable " + variables.get(i)
+                        + " must contain " + results.length + " values");
+            }
+        }
+        if (validity != null && validity.length < (results.length + Long.SIZE - 1) / Long.SIZE) {
+            throw new IllegalArgumentException("Validity bitmap is too short for " + results.length + " rows");
+        }
+        return new BatchInterpreter(instructions, constants, maxStackDepth).calculate(columns, results, validity);
+    }
+
+    /**
+     * @param opcode   operation.
+     * @param argument index of constant or variable.
+     * @return instruction with argument packed above opcode.
+     * @throws IllegalArgumentException if statement has too many constants or variables to pack the argument.
+     */
+    static int instruction(int opcode, int argument) {
+        if (argument >= MAX_ARGUMENT) {
+            throw new IllegalArgumentException("Statement must have less than " + MAX_ARGUMENT
+                    + " constants and variables");
+        }
+        return argument << OPCODE_BITS | opcode;
+    }
+}
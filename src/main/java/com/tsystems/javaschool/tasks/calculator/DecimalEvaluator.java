@@ -0,0 +1,532 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ABS;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ADD;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.DIVIDE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MAX;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MIN;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MULTIPLY;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.NEGATE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.POWER;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.REMAINDER;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SQRT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SUBTRACT;
+
+/**
+ * Evaluates statements in exact decimal arithmetic.
+ * <p>
+ * Every operation gives the same value as the corresponding {@link BigDecimal} operation with the configured
+ * {@link MathContext}: exact if the result fits into its precision, rounded to the precision otherwise.
+ * The final result is rounded to 4 fraction digits with the rounding mode of the context.
+ * <p>
+ * Statements are first evaluated on scaled longs: each value is an unscaled long with a number of fraction
+ * digits. The fast path is used while all values have at most {@value #MAX_FIXED_DIGITS} digits and no
+ * rounding is needed, or division is rounded to a precision of at most {@value #MAX_FIXED_DIGITS} digits.
+ * Otherwise the statement is evaluated again on {@link BigDecimal}. Division by zero and, with unlimited
+ * precision, non-terminating division give null result.
+ * <p>
+ * Power is defined for integer exponents only, as {@link BigDecimal#pow(int, MathContext)}; with unlimited
+ * precision the exponent must not exceed {@value #MAX_EXACT_EXPONENT} in magnitude. Square root is rounded
+ * to the precision of the context, with unlimited precision it is defined only if it is exact.
+ * <p>
+ * Instances keep their stacks between calls and therefore must not be shared between threads.
+ */
+final class DecimalEvaluator extends ExpressionParser {
+    /*
+     * Keeps products of remainders by ten and sums of two values within long range.
+     */
+    static final int MAX_FIXED_DIGITS = 17;
+    static final int MAX_FIXED_SCALE = 18;
+    static final int RESULT_SCALE = 4;
+    static final int MAX_EXACT_EXPONENT = 1000;
+
+    private static final BigDecimal MAX_EXPONENT = BigDecimal.valueOf(999999999);
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final int MAX_ROOT_ITERATIONS = 64;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_FIXED_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private long[] unscaledValues = new long[INITIAL_STACK_SIZE];
+    private int[] scales = new int[INITIAL_STACK_SIZE];
+    private BigDecimal[] decimals = new BigDecimal[INITIAL_STACK_SIZE];
+    private int operandsSize;
+    private int maxOperandsSize;
+
+    private MathContext mathContext;
+    private int fixedPrecision;
+    private boolean roundedDivision;
+    private boolean bigDecimalMode;
+    private boolean fixedOverflow;
+    private boolean undefined;
+    private boolean divisionByZero;
+
+    /**
+     * Evaluates statement.
+     *
+     * @param statement   mathematical statement, must not be null.
+     * @param mathContext precision and rounding mode of operations.
+     * @return result rounded to 4 fraction digits without trailing zeros, or null if statement is incorrect,
+     * division by zero occurred or the result can not be represented; {@link #getError()} tells the reason.
+     */
+    String evaluate(CharSequence statement, MathContext mathContext) {
+        this.mathContext = mathContext;
+        int precision = mathContext.getPrecision();
+        fixedPrecision = precision == 0 ? MAX_FIXED_DIGITS : Math.min(precision, MAX_FIXED_DIGITS);
+        roundedDivision = precision != 0 && precision <= MAX_FIXED_DIGITS;
+
+        try {
+            if (!evaluate(statement, false)) {
+                evaluate(statement, true);
+            }
+            if (undefined) {
+                return null;
+            }
+            return bigDecimalMode ? formatResult(decimals[0]) : formatResult(unscaledValues[0], scales[0]);
+        } finally {
+            releaseOperands();
+        }
+    }
+
+    /**
+     * Evaluates statement on {@link BigDecimal} only, skipping the fast path.
+     */
+    String evaluateWithBigDecimal(CharSequence statement, MathContext mathContext) {
+        this.mathContext = mathContext;
+        try {
+            evaluate(statement, true);
+            return undefined ? null : formatResult(decimals[0]);
+        } finally {
+            releaseOperands();
+        }
+    }
+
+    /**
+     * @return reason why the last evaluated statement has null result.
+     */
+    EvaluationError getError() {
+        if (error() != null) {
+            return error();
+        }
+        return divisionByZero ? EvaluationError.DIVISION_BY_ZERO : EvaluationError.UNDEFINED;
+    }
+
+    /**
+     * @return {@code false} if scaled longs overflowed and the statement has to be evaluated on BigDecimal.
+     */
+    private boolean evaluate(CharSequence statement, boolean bigDecimalMode) {
+        this.bigDecimalMode = bigDecimalMode;
+        operandsSize = 0;
+        fixedOverflow = false;
+        undefined = false;
+        divisionByZero = false;
+        if (!tryParse(statement)) {
+            undefined = true;
+        }
+        return !fixedOverflow || undefined;
+    }
+
+    @Override
+    void pushOperand(double operand) {
+        ensureCapacity();
+        if (bigDecimalMode) {
+            decimals[operandsSize++] = new BigDecimal(numberText());
+            return;
+        }
+        long unscaledValue = numberUnscaledValue();
+        int scale = numberScale();
+        if (unscaledValue < 0 || unscaledValue >= POWERS_OF_TEN[MAX_FIXED_DIGITS]
+                || scale > MAX_FIXED_SCALE || exceedsPrecision(unscaledValue)) {
+            fixedOverflow = true;
+        }
+        unscaledValues[operandsSize] = unscaledValue;
+        scales[operandsSize++] = scale;
+    }
+
+    @Override
+    void pushVariable(String name) {
+        fail(EvaluationError.UNKNOWN_NAME, nameStart(), name);
+    }
+
+    @Override
+    void applyOperator(int opcode) {
+        boolean unary = Operators.arity(opcode) == 1;
+        if (!unary) {
+            operandsSize--;
+        }
+        if (undefined || fixedOverflow) {
+            return;
+        }
+        int first = operandsSize - 1;
+        // unary operations read their only operand as the second one as well, staying within the stack
+        int second = unary ? first : operandsSize;
+        if (bigDecimalMode) {
+            applyBigDecimal(opcode, first, second, unary);
+        } else {
+            applyFixed(opcode, first, second);
+        }
+    }
+
+    private void applyBigDecimal(int opcode, int first, int second, boolean unary) {
+        BigDecimal firstOperand = decimals[first];
+        BigDecimal secondOperand = unary ? null : decimals[second];
+        if (!unary) {
+            decimals[second] = null;
+        }
+        try {
+            BigDecimal result = calculate(opcode, firstOperand, secondOperand);
+            if (result == null) {
+                undefined = true;
+                divisionByZero = !unary && secondOperand.signum() == 0 && (opcode == DIVIDE || opcode == REMAINDER);
+            }
+            decimals[first] = result;
+        } catch (ArithmeticException e) {
+            // non-terminating division with unlimited precision or rounding with UNNECESSARY mode
+            undefined = true;
+        }
+    }
+
+    /**
+     * @return result of operation or null if it is not defined.
+     */
+    private BigDecimal calculate(int opcode, BigDecimal first, BigDecimal second) {
+        switch (opcode) {
+            case ADD:
+                return first.add(second, mathContext);
+            case SUBTRACT:
+                return first.subtract(second, mathContext);
+            case MULTIPLY:
+                return first.multiply(second, mathContext);
+            case DIVIDE:
+                return second.signum() == 0 ? null : first.divide(second, mathContext);
+            case REMAINDER:
+                return second.signum() == 0 ? null : first.remainder(second, mathContext);
+            case NEGATE:
+                return first.negate(mathContext);
+            case ABS:
+                return first.abs(mathContext);
+            case MIN:
+                return first.min(second);
+            case MAX:
+                return first.max(second);
+            case POWER:
+                return power(first, second);
+            case SQRT:
+                return squareRoot(first);
+            default:
+                throw new IllegalStateException("Illegal opcode " + opcode);
+        }
+    }
+
+    /**
+     * Raises value to integer power as {@link BigDecimal#pow(int, MathContext)}.
+     *
+     * @return power or null if exponent is not an integer or the power can not be represented.
+     */
+    private BigDecimal power(BigDecimal base, BigDecimal exponent) {
+        BigDecimal integerExponent = exponent.stripTrailingZeros();
+        if (integerExponent.scale() > 0 || integerExponent.abs().compareTo(MAX_EXPONENT) > 0) {
+            return null;
+        }
+        int n = integerExponent.intValue();
+        if (mathContext.getPrecision() != 0) {
+            return base.pow(n, mathContext);
+        }
+        if (Math.abs(n) > MAX_EXACT_EXPONENT) {
+            return null;
+        }
+        return n >= 0 ? base.pow(n) : BigDecimal.ONE.divide(base.pow(-n), mathContext);
+    }
+
+    /**
+     * Calculates square root by Newton's method starting from the double approximation.
+     *
+     * @return square root rounded to the precision, exact root with unlimited precision,
+     * or null if value is negative or has no exact root with unlimited precision.
+     */
+    private BigDecimal squareRoot(BigDecimal value) {
+        if (value.signum() <= 0) {
+            return value.signum() == 0 ? BigDecimal.ZERO : null;
+        }
+        int precision = mathContext.getPrecision();
+        BigDecimal significant = value.stripTrailingZeros();
+        MathContext working = new MathContext(
+                (precision == 0 ? significant.precision() : precision) + 2, RoundingMode.HALF_EVEN);
+
+        int exponent = Math.floorDiv(value.precision() - value.scale() - 1, 2);
+        double mantissa = value.scaleByPowerOfTen(-2 * exponent).doubleValue();
+        BigDecimal root = new BigDecimal(Math.sqrt(mantissa)).scaleByPowerOfTen(exponent).round(working);
+        for (int i = 0; i < MAX_ROOT_ITERATIONS; i++) {
+            BigDecimal next = root.add(value.divide(root, working)).divide(TWO, working);
+            if (next.compareTo(root) == 0) {
+                break;
+            }
+            root = next;
+        }
+
+        if (precision != 0) {
+            return root.round(mathContext);
+        }
+        BigDecimal exactRoot = root.round(new MathContext((significant.precision() + 1) / 2 + 1,
+                RoundingMode.HALF_EVEN)).stripTrailingZeros();
+        return exactRoot.multiply(exactRoot).compareTo(value) == 0 ? exactRoot : null;
+    }
+
+    private void applyFixed(int opcode, int first, int second) {
+        long firstValue = unscaledValues[first];
+        int firstScale = scales[first];
+        long secondValue = unscaledValues[second];
+        int secondScale = scales[second];
+
+        switch (opcode) {
+            case ADD:
+            case SUBTRACT:
+            case MIN:
+            case MAX:
+                int scale = Math.max(firstScale, secondScale);
+                firstValue = rescale(firstValue, scale - firstScale);
+                secondValue = rescale(secondValue, scale - secondScale);
+                if (fixedOverflow) {
+                    return;
+                }
+                store(first, combine(opcode, firstValue, secondValue), scale);
+                break;
+            case MULTIPLY:
+                if (firstValue != 0 && Math.abs(secondValue) > POWERS_OF_TEN[MAX_FIXED_DIGITS] / Math.abs(firstValue)) {
+                    fixedOverflow = true;
+                    return;
+                }
+                store(first, firstValue * secondValue, firstScale + secondScale);
+                break;
+            case DIVIDE:
+                if (secondValue == 0) {
+                    undefined = true;
+                    divisionByZero = true;
+                    return;
+                }
+                divideFixed(first, firstValue, firstScale, secondValue, secondScale);
+                break;
+            case NEGATE:
+                store(first, -firstValue, firstScale);
+                break;
+            case ABS:
+                store(first, Math.abs(firstValue), firstScale);
+                break;
+            default:
+                fixedOverflow = true;
+                break;
+        }
+    }
+
+    private static long combine(int opcode, long first, long second) {
+        switch (opcode) {
+            case ADD:
+                return first + second;
+            case SUBTRACT:
+                return first - second;
+            case MIN:
+                return Math.min(first, second);
+            default:
+                return Math.max(first, second);
+        }
+    }
+
+    /**
+     * Divides scaled longs digit by digit until the quotient is exact or has as many significant digits
+     * as the precision allows, then rounds it as {@link BigDecimal#divide(BigDecimal, MathContext)} does.
+     */
+    private void divideFixed(int target, long dividend, int dividendScale, long divisor, int divisorScale) {
+        boolean negative = (dividend < 0) != (divisor < 0);
+        long absoluteDivisor = Math.abs(divisor);
+        long quotient = Math.abs(dividend) / absoluteDivisor;
+        long remainder = Math.abs(dividend) % absoluteDivisor;
+        int scale = dividendScale - divisorScale;
+
+        while (remainder != 0 && digits(quotient) < fixedPrecision) {
+            if (quotient > POWERS_OF_TEN[MAX_FIXED_DIGITS] / 10 || scale >= MAX_FIXED_SCALE) {
+                fixedOverflow = true;
+                return;
+            }
+            remainder *= 10;
+            quotient = quotient * 10 + remainder / absoluteDivisor;
+            remainder %= absoluteDivisor;
+            scale++;
+        }
+        if (remainder != 0) {
+            if (roundedDivision && mathContext.getRoundingMode() == RoundingMode.UNNECESSARY) {
+                undefined = true;
+                return;
+            }
+            if (!roundedDivision || digits(quotient) > fixedPrecision) {
+                fixedOverflow = true;
+                return;
+            }
+            int comparison = Long.compare(remainder, absoluteDivisor - remainder);
+            if (isRoundedAwayFromZero(mathContext.getRoundingMode(), negative, comparison, quotient)) {
+                quotient++;
+            }
+        }
+        if (scale < 0) {
+            quotient = rescale(quotient, -scale);
+            scale = 0;
+        }
+        if (!fixedOverflow) {
+            store(target, negative ? -quotient : quotient, scale);
+        }
+    }
+
+    private void store(int target, long unscaledValue, int scale) {
+        if (Math.abs(unscaledValue) >= POWERS_OF_TEN[MAX_FIXED_DIGITS] || scale > MAX_FIXED_SCALE
+                || exceedsPrecision(unscaledValue)) {
+            fixedOverflow = true;
+            return;
+        }
+        unscaledValues[target] = unscaledValue;
+        scales[target] = scale;
+    }
+
+    private boolean exceedsPrecision(long unscaledValue) {
+        return digits(Math.abs(unscaledValue)) > fixedPrecision;
+    }
+
+    private long rescale(long unscaledValue, int extraDigits) {
+        if (extraDigits > MAX_FIXED_DIGITS
+                || Math.abs(unscaledValue) >= POWERS_OF_TEN[MAX_FIXED_DIGITS - extraDigits]) {
+            fixedOverflow = true;
+            return 0;
+        }
+        return unscaledValue * POWERS_OF_TEN[extraDigits];
+    }
+
+    /**
+     * @return number of decimal digits of non-negative value, 0 for zero.
+     */
+    private static int digits(long value) {
+        int digits = 0;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Decides if truncated value must be incremented in magnitude.
+     *
+     * @param roundingMode rounding mode.
+     * @param negative     sign of the exact value.
+     * @param comparison   comparison of discarded fraction with a half: negative, zero or positive.
+     * @param truncated    magnitude of truncated value.
+     * @return {@code true} if magnitude must be incremented.
+     * @throws ArithmeticException if rounding mode is {@link RoundingMode#UNNECESSARY}.
+     */
+    private static boolean isRoundedAwayFromZero(RoundingMode roundingMode, boolean negative, int comparison,
+                                                 long truncated) {
+        switch (roundingMode) {
+            case UP:
+                return true;
+            case DOWN:
+                return false;
+            case CEILING:
+                return !negative;
+            case FLOOR:
+                return negative;
+            case HALF_UP:
+                return comparison >= 0;
+            case HALF_DOWN:
+                return comparison > 0;
+            case HALF_EVEN:
+                return comparison > 0 || (comparison == 0 && (truncated & 1) == 1);
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+    }
+
+    private String formatResult(long unscaledValue, int scale) {
+        if (scale > RESULT_SCALE) {
+            long divisor = POWERS_OF_TEN[scale - RESULT_SCALE];
+            long absoluteValue = Math.abs(unscaledValue);
+            long truncated = absoluteValue / divisor;
+            long remainder = absoluteValue % divisor;
+            if (remainder != 0) {
+                if (mathContext.getRoundingMode() == RoundingMode.UNNECESSARY) {
+                    return null;
+                }
+                int comparison = Long.compare(remainder, divisor - remainder);
+                if (isRoundedAwayFromZero(mathContext.getRoundingMode(), unscaledValue < 0, comparison, truncated)) {
+                    truncated++;
+                }
+            }
+            unscaledValue = unscaledValue < 0 ? -truncated : truncated;
+            scale = RESULT_SCALE;
+        }
+        while (scale > 0 && unscaledValue % 10 == 0) {
+            unscaledValue /= 10;
+            scale--;
+        }
+        if (scale == 0) {
+            return Long.toString(unscaledValue);
+        }
+
+        String digits = Long.toString(Math.abs(unscaledValue));
+        StringBuilder result = new StringBuilder(digits.length() + scale + 2);
+        if (unscaledValue < 0) {
+            result.append('-');
+        }
+        if (digits.length() <= scale) {
+            result.append("0.");
+            for (int i = digits.length(); i < scale; i++) {
+                result.append('0');
+            }
+            result.append(digits);
+        } else {
+            result.append(digits, 0, digits.length() - scale).append('.')
+                    .append(digits, digits.length() - scale, digits.length());
+        }
+        return result.toString();
+    }
+
+    private String formatResult(BigDecimal value) {
+        try {
+            BigDecimal rounded = value.setScale(RESULT_SCALE, mathContext.getRoundingMode());
+            return rounded.signum() == 0 ? "0" : rounded.stripTrailingZeros().toPlainString();
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drops references to decimals and stacks grown by deeply nested statements.
+     */
+    private void releaseOperands() {
+        if (unscaledValues.length > MAX_RETAINED_STACK_SIZE) {
+            unscaledValues = new long[INITIAL_STACK_SIZE];
+            scales = new int[INITIAL_STACK_SIZE];
+            decimals = new BigDecimal[INITIAL_STACK_SIZE];
+        } else {
+            Arrays.fill(decimals, 0, maxOperandsSize, null);
+        }
+        maxOperandsSize = 0;
+    }
+
+    private void ensureCapacity() {
+        if (operandsSize == unscaledValues.length) {
+            unscaledValues = Arrays.copyOf(unscaledValues, operandsSize * 2);
+            scales = Arrays.copyOf(scales, operandsSize * 2);
+            decimals = Arrays.copyOf(decimals, operandsSize * 2);
+        }
+        if (operandsSize == maxOperandsSize) {
+            maxOperandsSize++;
+        }
+    }
+}
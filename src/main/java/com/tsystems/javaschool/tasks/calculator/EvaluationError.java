@@ -0,0 +1,40 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+/**
+ * Reasons why a statement has no result.
+ */
+public enum EvaluationError {
+    /**
+     * Statement contains a symbol which is not a digit, letter, operator, bracket, comma or whitespace.
+     */
+    INVALID_SYMBOL,
+    /**
+     * Opening and closing brackets do not match.
+     */
+    UNBALANCED_BRACKETS,
+    /**
+     * Known symbols in a wrong order, e.g. two operators in a row or an empty statement.
+     */
+    SYNTAX_ERROR,
+    /**
+     * Unknown function or a variable without value.
+     */
+    UNKNOWN_NAME,
+    /**
+     * Function is called with a wrong number of arguments.
+     */
+    WRONG_ARGUMENT_COUNT,
+    /**
+     * Division or remainder by zero.
+     */
+    DIVISION_BY_ZERO,
+    /**
+     * Result is too large to be represented.
+     */
+    OVERFLOW,
+    /**
+     * Result of an operation is not a number, e.g. square root of a negative number, or can not be
+     * represented exactly in decimal arithmetic.
+     */
+    UNDEFINED
+}
@@ -0,0 +1,47 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+/**
+ * Receives measurements of statements evaluated by {@link Calculator}, see
+ * {@link Calculator#Calculator(ResultCache, java.math.MathContext, EvaluationListener)}.
+ * <p>
+ * Methods are called on the evaluating threads, so implementations must be thread-safe and fast.
+ * {@link EvaluationMetrics} is a lock-free implementation aggregating them.
+ */
+public interface EvaluationListener {
+
+    /**
+     * Phases of evaluation of a statement.
+     */
+    enum Phase {
+        /**
+         * Normalization of statement and lookup of its result in {@link ResultCache}, without evaluation
+         * on cache misses.
+         */
+        CACHE_LOOKUP,
+        /**
+         * Parsing and calculation, which are done in a single pass. In decimal arithmetic also includes
+         * formatting of the result.
+         */
+        EVALUATION,
+        /**
+         * Formatting of the calculated value into result string.
+         */
+        FORMATTING
+    }
+
+    /**
+     * Called when a phase of evaluation is completed.
+     *
+     * @param phase completed phase.
+     * @param nanos duration of the phase in nanoseconds.
+     */
+    void phaseCompleted(Phase phase, long nanos);
+
+    /**
+     * Called when statement is evaluated, results found in cache are not evaluated.
+     *
+     * @param length length of statement.
+     * @param error  reason why the statement has no result, null if it has one.
+     */
+    void statementEvaluated(int length, EvaluationError error);
+}
@@ -0,0 +1,164 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free aggregation of evaluation measurements: latency histogram of every phase, histogram of lengths
+ * of evaluated statements and number of failures per reason.
+ * <p>
+ * All values are kept in {@link LongAdder} counters, so recording from many threads does not contend.
+ * Reading is not atomic: a snapshot taken while statements are evaluated can miss the latest measurements.
+ */
+public final class EvaluationMetrics implements EvaluationListener {
+    private static final EvaluationListener.Phase[] PHASES = EvaluationListener.Phase.values();
+    private static final EvaluationError[] ERRORS = EvaluationError.values();
+
+    private final Histogram[] latencies = new Histogram[PHASES.length];
+    private final Histogram lengths = new Histogram();
+    private final LongAdder[] failures = new LongAdder[ERRORS.length];
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * Creates metrics with all counters at zero.
+     */
+    public EvaluationMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Histogram();
+        }
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void phaseCompleted(Phase phase, long nanos) {
+        latencies[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void statementEvaluated(int length, EvaluationError error) {
+        evaluations.increment();
+        lengths.record(length);
+        if (error != null) {
+            failures[error.ordinal()].increment();
+        }
+    }
+
+    /**
+     * @param phase phase of evaluation, must not be null.
+     * @return histogram of durations of the phase in nanoseconds.
+     */
+    public Histogram getLatencies(Phase phase) {
+        return latencies[phase.ordinal()];
+    }
+
+    /**
+     * @return histogram of lengths of evaluated statements.
+     */
+    public Histogram getLengths() {
+        return lengths;
+    }
+
+    /**
+     * @return number of evaluated statements.
+     */
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * @param error reason of failure, must not be null.
+     * @return number of evaluated statements which had no result for the reason.
+     */
+    public long getFailureCount(EvaluationError error) {
+        return failures[error.ordinal()].sum();
+    }
+
+    /**
+     * Histogram of non-negative values with buckets of powers of two: bucket 0 counts zeros and bucket
+     * {@code i} counts values from {@code 2^(i-1)} to {@code 2^i - 1}. Negative values are counted as zeros.
+     */
+    public static final class Histogram {
+        /**
+         * Number of buckets, enough for any long value.
+         */
+        public static final int BUCKETS = Long.SIZE;
+
+        private final LongAdder[] counts = new LongAdder[BUCKETS];
+        private final LongAdder sum = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            long recorded = Math.max(value, 0);
+            counts[Long.SIZE - Long.numberOfLeadingZeros(recorded)].increment();
+            sum.add(recorded);
+        }
+
+        /**
+         * @param bucket index of bucket, from 0 to {@link #BUCKETS} - 1.
+         * @return number of values in the bucket.
+         */
+        public long getCount(int bucket) {
+            return counts[bucket].sum();
+        }
+
+        /**
+         * @return number of recorded values.
+         */
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : counts) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        /**
+         * @return sum of recorded values.
+         */
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * @param bucket index of bucket, from 0 to {@link #BUCKETS} - 1.
+         * @return the largest value counted by the bucket.
+         */
+        public static long getUpperBound(int bucket) {
+            return (1L << bucket) - 1;
+        }
+
+        /**
+         * Estimates percentile of recorded values by the upper bound of the bucket containing it.
+         *
+         * @param percentile percentile from 0 to 100.
+         * @return upper bound of the bucket containing the percentile, 0 if no values are recorded.
+         * @throws IllegalArgumentException if percentile is out of range.
+         */
+        public long getPercentile(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentile must be from 0 to 100");
+            }
+            long[] snapshot = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts[i].sum();
+                count += snapshot[i];
+            }
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank && seen > 0) {
+                    return getUpperBound(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+/**
+ * Result of evaluation of a statement: either its value or the reason why it has none.
+ */
+public final class EvaluationResult {
+    private final String value;
+    private final EvaluationError error;
+    private final int position;
+
+    private EvaluationResult(String value, EvaluationError error, int position) {
+        this.value = value;
+        this.error = error;
+        this.position = position;
+    }
+
+    static EvaluationResult success(String value) {
+        return new EvaluationResult(value, null, -1);
+    }
+
+    static EvaluationResult failure(EvaluationError error, int position) {
+        return new EvaluationResult(null, error, position);
+    }
+
+    /**
+     * @return {@code true} if statement has a value.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return value of statement in the same format as {@link Calculator#evaluate(String)}, null if it has none.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return reason why statement has no value, null if it has one.
+     */
+    public EvaluationError getError() {
+        return error;
+    }
+
+    /**
+     * @return index of the symbol of statement where the error was found, length of statement if it ended
+     * too early, -1 if statement has a value or the error occurred in calculation rather than parsing.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? value : error + (position < 0 ? "" : " at position " + position);
+    }
+}
@@ -0,0 +1,254 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ADD;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.DIVIDE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MULTIPLY;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_BITS;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_MASK;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_CONSTANT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_VARIABLE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.REMAINDER;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SUBTRACT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.instruction;
+
+/**
+ * Translates statements into {@link CompiledExpression} programs.
+ * <p>
+ * The program is simplified while it is emitted. Operations on constants are folded into a single
+ * constant, and identities {@code x * 1}, {@code 1 * x}, {@code x / 1}, {@code x + 0}, {@code 0 + x} and
+ * {@code x - 0} are reduced to {@code x}. Folding uses the same double arithmetic as evaluation, so results
+ * do not change, except that {@code x + 0} may turn a negative zero into a positive one. Operations which
+ * depend on the value of {@code x} for special values, like {@code x * 0} being NaN for infinite {@code x},
+ * are kept. Division by an operand which is always zero is recorded in the compiled expression.
+ * <p>
+ * Instances keep their buffers between calls and therefore must not be shared between threads.
+ */
+final class ExpressionCompiler extends ExpressionParser {
+    /*
+     * Marks instruction of a constant removed as identity, removed instructions are dropped together with
+     * their constants once the statement is parsed.
+     */
+    private static final int REMOVED = -1;
+
+    private int[] instructions = new int[INITIAL_STACK_SIZE];
+    private int instructionsSize;
+    private double[] constants = new double[INITIAL_STACK_SIZE];
+    private int constantsSize;
+    private int[] operandStarts = new int[INITIAL_STACK_SIZE];
+    private int stackDepth;
+    private int maxStackDepth;
+    private boolean instructionsRemoved;
+    private boolean divisionByZero;
+    private List<String> variables;
+    private boolean variablesDeclared;
+
+    /**
+     * Compiles statement, variables are numbered in order of their first occurrence.
+     *
+     * @param statement mathematical statement, must not be null.
+     * @return compiled program of the statement.
+     * @throws IllegalArgumentException if statement is incorrect.
+     */
+    CompiledExpression compile(CharSequence statement) {
+        return compile(statement, new ArrayList<>(), false);
+    }
+
+    /**
+     * Compiles statement with declared variables.
+     *
+     * @param statement mathematical statement, must not be null.
+     * @param variables names of variables in order of their values, see {@link #declareVariables(String...)}.
+     * @return compiled program of the statement.
+     * @throws IllegalArgumentException if statement is incorrect or uses undeclared variable.
+     */
+    CompiledExpression compile(CharSequence statement, List<String> variables) {
+        return compile(statement, new ArrayList<>(variables), true);
+    }
+
+    /**
+     * Validates names of declared variables.
+     *
+     * @param variables names of variables in order of their values, must not be null.
+     * @return list of variables.
+     * @throws IllegalArgumentException if any variable is null or declared twice.
+     */
+    static List<String> declareVariables(String... variables) {
+        List<String> declaredVariables = new ArrayList<>(variables.length);
+        Set<String> uniqueVariables = new HashSet<>();
+        for (String variable : variables) {
+            if (variable == null || !uniqueVariables.add(variable)) {
+                throw new IllegalArgumentException("Variables must be unique and not null");
+            }
+            declaredVariables.add(variable);
+        }
+        return declaredVariables;
+    }
+
+    private CompiledExpression compile(CharSequence statement, List<String> variables, boolean variablesDeclared) {
+        instructionsSize = 0;
+        constantsSize = 0;
+        stackDepth = 0;
+        maxStackDepth = 0;
+        instructionsRemoved = false;
+        divisionByZero = false;
+        this.variables = variables;
+        this.variablesDeclared = variablesDeclared;
+        try {
+            parse(statement);
+        } finally {
+            this.variables = null;
+        }
+        if (instructionsRemoved) {
+            dropRemovedInstructions();
+        }
+        return new CompiledExpression(Arrays.copyOf(instructions, instructionsSize),
+                Arrays.copyOf(constants, constantsSize), Collections.unmodifiableList(variables), maxStackDepth,
+                divisionByZero);
+    }
+
+    @Override
+    void pushOperand(double operand) {
+        pushOperandStart();
+        emitConstant(operand);
+        maxStackDepth = Math.max(maxStackDepth, stackDepth);
+    }
+
+    @Override
+    void pushVariable(String name) {
+        int index = variables.indexOf(name);
+        if (index < 0) {
+            if (variablesDeclared) {
+                fail(EvaluationError.UNKNOWN_NAME, nameStart(), name);
+                return;
+            }
+            index = variables.size();
+            variables.add(name);
+        }
+        pushOperandStart();
+        emit(instruction(PUSH_VARIABLE, index));
+        maxStackDepth = Math.max(maxStackDepth, stackDepth);
+    }
+
+    @Override
+    void applyOperator(int opcode) {
+        if (Operators.arity(opcode) == 1) {
+            applyUnaryOperator(opcode);
+            return;
+        }
+        int firstStart = operandStarts[stackDepth - 2];
+        int secondStart = operandStarts[--stackDepth];
+        boolean firstConstant = isConstant(firstStart, secondStart);
+        boolean secondConstant = isConstant(secondStart, instructionsSize);
+        double first = firstConstant ? constantAt(firstStart) : Double.NaN;
+        double second = secondConstant ? constantAt(secondStart) : Double.NaN;
+        if ((opcode == DIVIDE || opcode == REMAINDER) && second == 0) {
+            divisionByZero = true;
+        }
+
+        if (firstConstant && secondConstant) {
+            // constants of the two topmost operands are the last ones in the table
+            instructionsSize = firstStart;
+            constantsSize -= 2;
+            emitConstant(Operators.apply(opcode, first, second));
+        } else if (secondConstant && isRightIdentity(opcode, second)) {
+            instructionsSize = secondStart;
+            constantsSize--;
+        } else if (firstConstant && isLeftIdentity(opcode, first)) {
+            instructions[firstStart] = REMOVED;
+            instructionsRemoved = true;
+        } else {
+            emit(opcode);
+        }
+    }
+
+    private void applyUnaryOperator(int opcode) {
+        int start = operandStarts[stackDepth - 1];
+        if (isConstant(start, instructionsSize)) {
+            double operand = constantAt(start);
+            instructionsSize = start;
+            constantsSize--;
+            emitConstant(Operators.apply(opcode, operand, 0));
+        } else {
+            emit(opcode);
+        }
+    }
+
+    private void pushOperandStart() {
+        if (stackDepth == operandStarts.length) {
+            operandStarts = Arrays.copyOf(operandStarts, stackDepth * 2);
+        }
+        operandStarts[stackDepth++] = instructionsSize;
+    }
+
+    /**
+     * Checks if instructions of an operand push a single constant. Folded operands are never preceded
+     * by a removed instruction, so a constant operand always consists of one instruction.
+     */
+    private boolean isConstant(int start, int end) {
+        return end - start == 1 && (instructions[start] & OPCODE_MASK) == PUSH_CONSTANT;
+    }
+
+    private double constantAt(int start) {
+        return constants[instructions[start] >>> OPCODE_BITS];
+    }
+
+    private static boolean isRightIdentity(int opcode, double operand) {
+        switch (opcode) {
+            case ADD:
+            case SUBTRACT:
+                return operand == 0;
+            case MULTIPLY:
+            case DIVIDE:
+                return operand == 1;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isLeftIdentity(int opcode, double operand) {
+        return opcode == ADD && operand == 0 || opcode == MULTIPLY && operand == 1;
+    }
+
+    private void emitConstant(double constant) {
+        if (constantsSize == constants.length) {
+            constants = Arrays.copyOf(constants, constantsSize * 2);
+        }
+        constants[constantsSize] = constant;
+        emit(instruction(PUSH_CONSTANT, constantsSize++));
+    }
+
+    /**
+     * Compacts instructions and constants, renumbering the remaining constants.
+     */
+    private void dropRemovedInstructions() {
+        int size = 0;
+        int usedConstants = 0;
+        for (int i = 0; i < instructionsSize; i++) {
+            int instruction = instructions[i];
+            if (instruction == REMOVED) {
+                continue;
+            }
+            if ((instruction & OPCODE_MASK) == PUSH_CONSTANT) {
+                constants[usedConstants] = constants[instruction >>> OPCODE_BITS];
+                instruction = instruction(PUSH_CONSTANT, usedConstants++);
+            }
+            instructions[size++] = instruction;
+        }
+        instructionsSize = size;
+        constantsSize = usedConstants;
+    }
+
+    private void emit(int instruction) {
+        if (instructionsSize == instructions.length) {
+            instructions = Arrays.copyOf(instructions, instructionsSize * 2);
+        }
+        instructions[instructionsSize++] = instruction;
+    }
+}
@@ -0,0 +1,78 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.Arrays;
+
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.DIVIDE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.REMAINDER;
+
+/**
+ * Evaluates statements directly while they are parsed, using a primitive operands stack.
+ * Instances keep their stacks between calls and therefore must not be shared between threads.
+ */
+final class ExpressionEvaluator extends ExpressionParser {
+    private double[] operands = new double[INITIAL_STACK_SIZE];
+    private int operandsSize;
+    private boolean divisionByZero;
+
+    /**
+     * Evaluates statement.
+     *
+     * @param statement mathematical statement, must not be null.
+     * @return calculated value, can be infinite or NaN if division by zero or other undefined operation occurred,
+     * NaN if statement is incorrect; {@link #errorOf(double)} tells the reason.
+     */
+    double evaluate(CharSequence statement) {
+        operandsSize = 0;
+        divisionByZero = false;
+        double result = tryParse(statement) ? operands[0] : Double.NaN;
+        if (operands.length > MAX_RETAINED_STACK_SIZE) {
+            operands = new double[INITIAL_STACK_SIZE];
+        }
+        return result;
+    }
+
+    /**
+     * Tells why the value of the last evaluated statement is not a finite number, parsing errors first.
+     *
+     * @param value value of the last evaluated statement.
+     * @return reason of error or null if value is finite.
+     */
+    EvaluationError errorOf(double value) {
+        if (error() != null) {
+            return error();
+        }
+        if (!Double.isInfinite(value) && !Double.isNaN(value)) {
+            return null;
+        }
+        if (divisionByZero) {
+            return EvaluationError.DIVISION_BY_ZERO;
+        }
+        return Double.isInfinite(value) ? EvaluationError.OVERFLOW : EvaluationError.UNDEFINED;
+    }
+
+    @Override
+    void pushOperand(double operand) {
+        if (operandsSize == operands.length) {
+            operands = Arrays.copyOf(operands, operandsSize * 2);
+        }
+        operands[operandsSize++] = operand;
+    }
+
+    @Override
+    void pushVariable(String name) {
+        fail(EvaluationError.UNKNOWN_NAME, nameStart(), name);
+    }
+
+    @Override
+    void applyOperator(int opcode) {
+        if (Operators.arity(opcode) == 1) {
+            operands[operandsSize - 1] = Operators.apply(opcode, operands[operandsSize - 1], 0);
+        } else {
+            double secondOperand = operands[--operandsSize];
+            if (secondOperand == 0 && (opcode == DIVIDE || opcode == REMAINDER)) {
+                divisionByZero = true;
+            }
+            operands[operandsSize - 1] = Operators.apply(opcode, operands[operandsSize - 1], secondOperand);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_BITS;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_MASK;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_CONSTANT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.PUSH_VARIABLE;
+
+/**
+ * Keeps results of many compiled expressions over shared variables up to date.
+ * <p>
+ * Every registered expression is turned into a tree of nodes which cache their values. Variables are nodes
+ * shared by all expressions using them. When a variable changes, only operations on the paths from the
+ * variable to the results are recalculated, and a path is cut off as soon as a recalculated value does
+ * not change. Listeners are notified when the rounded result of their expression changes.
+ * <p>
+ * Variables have no value until they are set, results of expressions using them are null until then.
+ * The graph is not thread-safe; listeners are called on the thread changing variables.
+ */
+public final class ExpressionGraph {
+    /*
+     * Kinds of nodes besides operations, which use opcodes of compiled programs.
+     */
+    private static final int CONSTANT = PUSH_CONSTANT;
+    private static final int VARIABLE = PUSH_VARIABLE;
+    private static final int RESULT = OPCODE_MASK;
+
+    private static final int NO_PARENT = -1;
+
+    private int[] kinds = new int[ExpressionParser.INITIAL_STACK_SIZE];
+    private int[] firstOperands = new int[ExpressionParser.INITIAL_STACK_SIZE];
+    private int[] secondOperands = new int[ExpressionParser.INITIAL_STACK_SIZE];
+    private int[] parents = new int[ExpressionParser.INITIAL_STACK_SIZE];
+    private double[] values = new double[ExpressionParser.INITIAL_STACK_SIZE];
+    private int nodesSize;
+
+    private final Map<String, Integer> variableNodes = new HashMap<>();
+    private int[][] variableParents = new int[ExpressionParser.INITIAL_STACK_SIZE][];
+    private int[] variableParentsSizes = new int[ExpressionParser.INITIAL_STACK_SIZE];
+
+    private final Map<CompiledExpression, Integer> resultNodes = new IdentityHashMap<>();
+    private final List<Consumer<? super String>> listeners = new ArrayList<>();
+    private final List<String> results = new ArrayList<>();
+
+    private int[] changedResults = new int[ExpressionParser.INITIAL_STACK_SIZE];
+    private int changedResultsSize;
+
+    /**
+     * Registers expression and calculates its result with current values of variables.
+     *
+     * @param expression compiled expression, must not be registered yet.
+     * @param listener   receives new result, null if it is not a finite number, whenever it changes;
+     *                   can be null.
+     * @return current result of the expression, null if any variable is not set.
+     * @throws IllegalArgumentException if expression is null or already registered.
+     */
+    public String register(CompiledExpression expression, Consumer<? super String> listener) {
+        if (expression == null || resultNodes.containsKey(expression)) {
+            throw new IllegalArgumentException("Expression must not be null or registered twice");
+        }
+        int[] instructions = expression.getInstructions();
+        double[] constants = expression.getConstants();
+        List<String> variables = expression.getVariables();
+
+        int[] stack = new int[instructions.length];
+        int size = 0;
+        for (int instruction : instructions) {
+            int opcode = instruction & OPCODE_MASK;
+            switch (opcode) {
+                case PUSH_CONSTANT:
+                    stack[size++] = addNode(CONSTANT, NO_PARENT, NO_PARENT, constants[instruction >>> OPCODE_BITS]);
+                    break;
+                case PUSH_VARIABLE:
+                    stack[size++] = variableNode(variables.get(instruction >>> OPCODE_BITS));
+                    break;
+                default:
+                    if (Operators.arity(opcode) == 1) {
+                        stack[size - 1] = addOperation(opcode, stack[size - 1], NO_PARENT);
+                    } else {
+                        size--;
+                        stack[size - 1] = addOperation(opcode, stack[size - 1], stack[size]);
+                    }
+                    break;
+            }
+        }
+        int expressionIndex = results.size();
+        int result = addOperation(RESULT, stack[0], expressionIndex);
+
+        resultNodes.put(expression, expressionIndex);
+        listeners.add(listener);
+        String formatted = Calculator.formatResult(values[result]);
+        results.add(formatted);
+        return formatted;
+    }
+
+    /**
+     * @param expression registered expression.
+     * @return current result of the expression, null if it is not a finite number or a variable is not set.
+     * @throws IllegalArgumentException if expression is not registered.
+     */
+    public String getResult(CompiledExpression expression) {
+        return results.get(indexOf(expression));
+    }
+
+    /**
+     * Sets value of variable, recalculates the expressions using it and notifies their listeners
+     * if results change.
+     *
+     * @param variable name of variable, it does not have to be used by registered expressions.
+     * @param value    new value.
+     */
+    public void set(String variable, double value) {
+        update(variable, value);
+        notifyListeners();
+    }
+
+    /**
+     * Sets values of several variables at once. Listeners are notified only after all variables are set,
+     * at most once per expression.
+     *
+     * @param variables new values by names of variables, must not be null.
+     * @throws IllegalArgumentException if map or any value is null, no variable is set then.
+     */
+    public void setAll(Map<String, Double> variables) {
+        if (variables == null) {
+            throw new IllegalArgumentException("Values of variables must not be null");
+        }
+        // checked before any variable is set, so a rejected call leaves the graph unchanged
+        for (Double value : variables.values()) {
+            if (value == null) {
+                throw new IllegalArgumentException("Values of variables must not be null");
+            }
+        }
+        for (Map.Entry<String, Double> variable : variables.entrySet()) {
+            update(variable.getKey(), variable.getValue());
+        }
+        notifyListeners();
+    }
+
+    private int indexOf(CompiledExpression expression) {
+        Integer index = resultNodes.get(expression);
+        if (index == null) {
+            throw new IllegalArgumentException("Expression is not registered");
+        }
+        return index;
+    }
+
+    private void update(String variable, double value) {
+        int node = variableNode(variable);
+        if (sameValue(values[node], value)) {
+            return;
+        }
+        values[node] = value;
+        int variableIndex = firstOperands[node];
+        int[] dependents = variableParents[variableIndex];
+        for (int i = 0; i < variableParentsSizes[variableIndex]; i++) {
+            propagate(dependents[i]);
+        }
+    }
+
+    /**
+     * Recalculates nodes from the given one up to the result while their values change.
+     */
+    private void propagate(int node) {
+        while (node != NO_PARENT) {
+            double value = calculate(node);
+            if (sameValue(values[node], value)) {
+                return;
+            }
+            values[node] = value;
+            if (kinds[node] == RESULT) {
+                markChanged(node);
+                return;
+            }
+            node = parents[node];
+        }
+    }
+
+    private void markChanged(int resultNode) {
+        if (changedResultsSize == changedResults.length) {
+            changedResults = Arrays.copyOf(changedResults, changedResultsSize * 2);
+        }
+        changedResults[changedResultsSize++] = resultNode;
+    }
+
+    private void notifyListeners() {
+        try {
+            for (int i = 0; i < changedResultsSize; i++) {
+                int expression = secondOperands[changedResults[i]];
+                String result = Calculator.formatResult(values[changedResults[i]]);
+                if (!Objects.equals(results.get(expression), result)) {
+                    results.set(expression, result);
+                    Consumer<? super String> listener = listeners.get(expression);
+                    if (listener != null) {
+                        listener.accept(result);
+                    }
+                }
+            }
+        } finally {
+            // results are notified once even if a listener throws
+            changedResultsSize = 0;
+        }
+    }
+
+    private double calculate(int node) {
+        double first = values[firstOperands[node]];
+        int kind = kinds[node];
+        if (kind == RESULT) {
+            return first;
+        }
+        double second = Operators.arity(kind) == 2 ? values[secondOperands[node]] : 0;
+        return Operators.apply(kind, first, second);
+    }
+
+    /**
+     * Finds or creates node of variable. Variable nodes keep their index among variables as the first operand.
+     */
+    private int variableNode(String variable) {
+        Integer node = variableNodes.get(variable);
+        if (node == null) {
+            int variableIndex = variableNodes.size();
+            if (variableIndex == variableParents.length) {
+                variableParents = Arrays.copyOf(variableParents, variableIndex * 2);
+                variableParentsSizes = Arrays.copyOf(variableParentsSizes, variableIndex * 2);
+            }
+            variableParents[variableIndex] = new int[1];
+            node = addNode(VARIABLE, variableIndex, NO_PARENT, Double.NaN);
+            variableNodes.put(variable, node);
+        }
+        return node;
+    }
+
+    /**
+     * Adds node of operation and links its operands to it. Result nodes keep index of their expression
+     * as the second operand.
+     */
+    private int addOperation(int kind, int firstOperand, int secondOperand) {
+        int node = addNode(kind, firstOperand, secondOperand, Double.NaN);
+        linkOperand(firstOperand, node);
+        if (kind != RESULT && Operators.arity(kind) == 2) {
+            linkOperand(secondOperand, node);
+        }
+        values[node] = calculate(node);
+        return node;
+    }
+
+    private void linkOperand(int operand, int parent) {
+        if (kinds[operand] == VARIABLE) {
+            int variableIndex = firstOperands[operand];
+            int size = variableParentsSizes[variableIndex];
+            if (size == variableParents[variableIndex].length) {
+                variableParents[variableIndex] = Arrays.copyOf(variableParents[variableIndex], size * 2);
+            }
+            variableParents[variableIndex][variableParentsSizes[variableIndex]++] = parent;
+        } else if (kinds[operand] != CONSTANT) {
+            parents[operand] = parent;
+        }
+    }
+
+    private int addNode(int kind, int firstOperand, int secondOperand, double value) {
+        if (nodesSize == kinds.length) {
+            int capacity = nodesSize * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            firstOperands = Arrays.copyOf(firstOperands, capacity);
+            secondOperands = Arrays.copyOf(secondOperands, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        kinds[nodesSize] = kind;
+        firstOperands[nodesSize] = firstOperand;
+        secondOperands[nodesSize] = secondOperand;
+        parents[nodesSize] = NO_PARENT;
+        values[nodesSize] = value;
+        return nodesSize++;
+    }
+
+    private static boolean sameValue(double first, double second) {
+        return Double.doubleToLongBits(first) == Double.doubleToLongBits(second);
+    }
+}
@@ -0,0 +1,446 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.Arrays;
+
+import static com.tsystems.javaschool.tasks.calculator.CharacterClasses.isDigit;
+import static com.tsystems.javaschool.tasks.calculator.CharacterClasses.isIdentifierPart;
+import static com.tsystems.javaschool.tasks.calculator.CharacterClasses.isIdentifierStart;
+import static com.tsystems.javaschool.tasks.calculator.CharacterClasses.isWhitespace;
+
+/**
+ * Single-pass parser of arithmetic statements.
+ * <p>
+ * The statement is lexed only once: numbers are parsed straight from the character sequence into
+ * primitive doubles and operators are ordered according to the Shunting-yard algorithm, so no
+ * intermediate strings or boxed values are created. Whitespace is ignored everywhere, including
+ * inside numbers, as it was when the statement was stripped before conversion.
+ * <p>
+ * Variables are named by latin letters, digits and underscores, starting with a letter or underscore.
+ * A name followed by an opening bracket is a call of function. Operators and functions are defined by
+ * {@link Operators}, the parser only sees their opcodes. Operands and operations are passed to subclasses
+ * in postfix order. Instances keep their stacks between calls to avoid garbage and therefore must not be
+ * shared between threads.
+ * <p>
+ * Symbols are classified by the lookup table of {@link CharacterClasses}. Errors stop parsing and are
+ * recorded as {@link EvaluationError} with position, incorrect statements are as cheap to reject as to parse.
+ */
+abstract class ExpressionParser {
+    static final int INITIAL_STACK_SIZE = 16;
+    /*
+     * Stacks grown beyond this size by deeply nested statements are released once the statement is parsed,
+     * so long-living parsers do not keep memory of the deepest statement they have seen.
+     */
+    static final int MAX_RETAINED_STACK_SIZE = 4096;
+
+    /*
+     * Powers of ten which are exactly representable as double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /*
+     * Marks opening bracket on the operators stack.
+     */
+    private static final int BRACKET = -1;
+
+    private static final int KNOWN_SYMBOLS = CharacterClasses.DIGIT | CharacterClasses.DECIMAL_MARK
+            | CharacterClasses.IDENTIFIER_PART | CharacterClasses.OPENING_BRACKET | CharacterClasses.CLOSING_BRACKET;
+
+    private int[] operators = new int[INITIAL_STACK_SIZE];
+    private int operatorsSize;
+    /*
+     * Number of arguments parsed so far for every open bracket, 0 for brackets which are not a function call.
+     */
+    private int[] arguments = new int[INITIAL_STACK_SIZE];
+    private int bracketsSize;
+
+    private CharSequence statement;
+    private int position;
+    private int length;
+
+    private EvaluationError error;
+    private int errorPosition;
+    private String errorSubject;
+
+    private int nameStart;
+    private int numberStart;
+    private int numberEnd;
+    private long numberUnscaledValue;
+    private int numberScale;
+
+    /**
+     * Receives the next operand in postfix order.
+     *
+     * @param operand parsed number.
+     */
+    abstract void pushOperand(double operand);
+
+    /**
+     * Receives the next variable operand in postfix order.
+     *
+     * Subclasses which do not allow the variable report it by {@link #fail(EvaluationError, int, String)}.
+     *
+     * @param name name of variable.
+     */
+    abstract void pushVariable(String name);
+
+    /**
+     * Receives the next operator or function in postfix order.
+     *
+     * @param opcode opcode of operation, see {@link Operators}.
+     */
+    abstract void applyOperator(int opcode);
+
+    /**
+     * Parses statement passing its operands and operators to subclass in postfix order.
+     *
+     * @param statement mathematical statement, must not be null.
+     * @throws IllegalArgumentException if statement is incorrect, {@link StatementException} tells the reason.
+     */
+    final void parse(CharSequence statement) {
+        if (!tryParse(statement)) {
+            throw new StatementException(error, errorPosition, errorMessage());
+        }
+    }
+
+    /**
+     * Parses statement passing its operands and operators to subclass in postfix order. Parsing stops
+     * at the first error, which is then available through {@link #error()} and {@link #errorPosition()};
+     * no exception is created.
+     *
+     * @param statement mathematical statement, must not be null.
+     * @return {@code true} if statement is correct.
+     */
+    final boolean tryParse(CharSequence statement) {
+        this.statement = statement;
+        this.position = 0;
+        this.length = statement.length();
+        operatorsSize = 0;
+        bracketsSize = 0;
+        error = null;
+        errorPosition = -1;
+        errorSubject = null;
+        try {
+            parseStatement();
+        } finally {
+            this.statement = null;
+            if (operators.length > MAX_RETAINED_STACK_SIZE) {
+                operators = new int[INITIAL_STACK_SIZE];
+            }
+            if (arguments.length > MAX_RETAINED_STACK_SIZE) {
+                arguments = new int[INITIAL_STACK_SIZE];
+            }
+        }
+        return error == null;
+    }
+
+    /**
+     * Stops parsing with error, only the first error of statement is kept. Subclasses call it from
+     * the methods receiving operands and operations.
+     *
+     * @param error    reason of the error.
+     * @param position index of the symbol where the error was found.
+     * @param subject  name of variable or function the error is about, can be null.
+     */
+    final void fail(EvaluationError error, int position, String subject) {
+        if (this.error == null) {
+            this.error = error;
+            this.errorPosition = position;
+            this.errorSubject = subject;
+        }
+    }
+
+    /**
+     * @return reason why the last parsed statement is incorrect, null if it is correct.
+     */
+    final EvaluationError error() {
+        return error;
+    }
+
+    /**
+     * @return index of the symbol where the error was found in the last parsed statement, length of
+     * statement if it ended too early, -1 if it is correct.
+     */
+    final int errorPosition() {
+        return errorPosition;
+    }
+
+    private String errorMessage() {
+        switch (error) {
+            case INVALID_SYMBOL:
+                return "Invalid symbol at position " + errorPosition;
+            case UNBALANCED_BRACKETS:
+                return "Unbalanced brackets at position " + errorPosition;
+            case UNKNOWN_NAME:
+                return "Unknown name " + errorSubject + " at position " + errorPosition;
+            case WRONG_ARGUMENT_COUNT:
+                return "Function " + errorSubject + " expects " + Operators.arity(Operators.function(errorSubject))
+                        + " arguments at position " + errorPosition;
+            default:
+                return errorPosition == length ? "The expression must not be empty or end with an operator"
+                        : "Unexpected symbol at position " + errorPosition;
+        }
+    }
+
+    private void parseStatement() {
+        boolean expectOperand = true;
+        boolean prefixAllowed = true;
+        int current;
+        while (error == null && (current = nextSymbol()) >= 0) {
+            char symbol = (char) current;
+            if (expectOperand) {
+                if (isDigit(symbol)) {
+                    pushOperand(parseNumber());
+                    expectOperand = false;
+                } else if (isIdentifierStart(symbol)) {
+                    int start = position;
+                    String name = parseIdentifier();
+                    if (nextSymbol() == '(') {
+                        pushFunction(name, start);
+                        prefixAllowed = true;
+                    } else {
+                        pushVariable(name);
+                        expectOperand = false;
+                    }
+                } else if (symbol == '(') {
+                    pushBracket(0);
+                    position++;
+                    prefixAllowed = true;
+                } else if (prefixAllowed && Operators.prefixOperator(symbol) != Operators.UNKNOWN) {
+                    pushOperator(Operators.prefixOperator(symbol));
+                    position++;
+                    prefixAllowed = false;
+                } else {
+                    fail(classifyUnexpected(symbol), position, null);
+                    return;
+                }
+            } else if (Operators.binaryOperator(symbol) != Operators.UNKNOWN) {
+                int operator = Operators.binaryOperator(symbol);
+                while (operatorsSize > 0 && operators[operatorsSize - 1] != BRACKET
+                        && appliesBefore(operators[operatorsSize - 1], operator)) {
+                    applyOperator(operators[--operatorsSize]);
+                }
+                pushOperator(operator);
+                position++;
+                expectOperand = true;
+                prefixAllowed = false;
+            } else if (symbol == ')') {
+                closeBracket();
+                position++;
+            } else if (symbol == ',') {
+                applyUntilBracket();
+                if (operatorsSize == 0 || arguments[bracketsSize - 1] == 0) {
+                    fail(EvaluationError.SYNTAX_ERROR, position, null);
+                    return;
+                }
+                arguments[bracketsSize - 1]++;
+                position++;
+                expectOperand = true;
+                prefixAllowed = true;
+            } else {
+                fail(classifyUnexpected(symbol), position, null);
+                return;
+            }
+        }
+        if (error != null) {
+            return;
+        }
+
+        if (expectOperand) {
+            fail(EvaluationError.SYNTAX_ERROR, length, null);
+            return;
+        }
+        while (operatorsSize > 0) {
+            int operator = operators[--operatorsSize];
+            if (operator == BRACKET) {
+                fail(EvaluationError.UNBALANCED_BRACKETS, length, null);
+                return;
+            }
+            applyOperator(operator);
+        }
+    }
+
+    /**
+     * Checks if operator on the stack has to be applied before the next binary operator is pushed.
+     */
+    private static boolean appliesBefore(int stacked, int next) {
+        int stackedPrecedence = Operators.precedence(stacked);
+        int nextPrecedence = Operators.precedence(next);
+        return stackedPrecedence > nextPrecedence
+                || (stackedPrecedence == nextPrecedence && !Operators.isRightAssociative(next));
+    }
+
+    /**
+     * Tells a symbol which is not allowed anywhere from a known symbol in a wrong place.
+     */
+    private static EvaluationError classifyUnexpected(char symbol) {
+        boolean known = CharacterClasses.is(symbol, KNOWN_SYMBOLS) || symbol == ','
+                || Operators.binaryOperator(symbol) != Operators.UNKNOWN
+                || Operators.prefixOperator(symbol) != Operators.UNKNOWN;
+        return known ? EvaluationError.SYNTAX_ERROR : EvaluationError.INVALID_SYMBOL;
+    }
+
+    private void pushFunction(String name, int start) {
+        int function = Operators.function(name);
+        if (function == Operators.UNKNOWN) {
+            fail(EvaluationError.UNKNOWN_NAME, start, name);
+            return;
+        }
+        pushOperator(function);
+        pushBracket(1);
+        position++;
+    }
+
+    private void closeBracket() {
+        applyUntilBracket();
+        if (operatorsSize == 0) {
+            fail(EvaluationError.UNBALANCED_BRACKETS, position, null);
+            return;
+        }
+        operatorsSize--;
+        int argumentsCount = arguments[--bracketsSize];
+        if (argumentsCount > 0) {
+            int function = operators[--operatorsSize];
+            if (argumentsCount != Operators.arity(function)) {
+                fail(EvaluationError.WRONG_ARGUMENT_COUNT, position, Operators.nameOf(function));
+                return;
+            }
+            applyOperator(function);
+        }
+    }
+
+    private void applyUntilBracket() {
+        while (operatorsSize > 0 && operators[operatorsSize - 1] != BRACKET) {
+            applyOperator(operators[--operatorsSize]);
+        }
+    }
+
+    /**
+     * Skips whitespace symbols and returns the next significant symbol without consuming it.
+     *
+     * @return next symbol or -1 if the end of statement is reached.
+     */
+    private int nextSymbol() {
+        while (position < length) {
+            char symbol = statement.charAt(position);
+            if (!isWhitespace(symbol)) {
+                return symbol;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses number starting at the current position.
+     * Values with up to 15 significant digits are computed exactly, longer ones are delegated to
+     * {@link Double#parseDouble(String)} to keep correct rounding. Exact digits of the number stay available
+     * through {@link #numberUnscaledValue()} and {@link #numberScale()} until the next number is parsed.
+     *
+     * @return parsed number.
+     * @throws IllegalArgumentException if number is malformed.
+     */
+    private double parseNumber() {
+        int start = position;
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean fitsLong = true;
+        boolean fraction = false;
+
+        int current;
+        while ((current = nextSymbol()) >= 0) {
+            char symbol = (char) current;
+            if (isDigit(symbol)) {
+                if (mantissa <= (Long.MAX_VALUE - 9) / 10) {
+                    mantissa = mantissa * 10 + (symbol - '0');
+                    if (fraction) {
+                        fractionDigits++;
+                    }
+                } else {
+                    fitsLong = false;
+                }
+            } else if (symbol == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+
+        numberStart = start;
+        numberEnd = position;
+        numberUnscaledValue = fitsLong ? mantissa : -1;
+        numberScale = fractionDigits;
+        if (fitsLong && mantissa <= MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length) {
+            return mantissa / POWERS_OF_TEN[fractionDigits];
+        }
+        return Double.parseDouble(numberText());
+    }
+
+    /**
+     * @return digits of the last parsed number without decimal mark, or -1 if they do not fit into long.
+     */
+    final long numberUnscaledValue() {
+        return numberUnscaledValue;
+    }
+
+    /**
+     * @return number of fraction digits of the last parsed number.
+     */
+    final int numberScale() {
+        return numberScale;
+    }
+
+    /**
+     * @return text of the last parsed number without whitespace symbols.
+     */
+    final String numberText() {
+        StringBuilder number = new StringBuilder(numberEnd - numberStart);
+        for (int i = numberStart; i < numberEnd; i++) {
+            char symbol = statement.charAt(i);
+            if (!isWhitespace(symbol)) {
+                number.append(symbol);
+            }
+        }
+        return number.toString();
+    }
+
+    /**
+     * Parses variable name starting at the current position. Unlike numbers, names can not contain whitespace.
+     *
+     * @return variable name.
+     */
+    private String parseIdentifier() {
+        int start = position;
+        nameStart = start;
+        while (position < length && isIdentifierPart(statement.charAt(position))) {
+            position++;
+        }
+        return statement.subSequence(start, position).toString();
+    }
+
+    /**
+     * @return position of the first symbol of the last parsed name.
+     */
+    final int nameStart() {
+        return nameStart;
+    }
+
+    private void pushOperator(int operator) {
+        if (operatorsSize == operators.length) {
+            operators = Arrays.copyOf(operators, operatorsSize * 2);
+        }
+        operators[operatorsSize++] = operator;
+    }
+
+    private void pushBracket(int argumentsCount) {
+        pushOperator(BRACKET);
+        if (bracketsSize == arguments.length) {
+            arguments = Arrays.copyOf(arguments, bracketsSize * 2);
+        }
+        arguments[bracketsSize++] = argumentsCount;
+    }
+}
@@ -0,0 +1,191 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ABS;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.ADD;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.DIVIDE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MAX;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MIN;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.MULTIPLY;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.NEGATE;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.OPCODE_MASK;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.POWER;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.REMAINDER;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SQRT;
+import static com.tsystems.javaschool.tasks.calculator.CompiledExpression.SUBTRACT;
+
+/**
+ * Registry of operators and functions of statements.
+ * <p>
+ * Every operation is identified by its opcode, which indexes dense tables of arity, precedence and
+ * associativity, and symbols of operators are looked up in tables indexed by ASCII code. Parsing and every
+ * evaluator dispatch on the opcode only, so they stay monomorphic however many operations are defined.
+ * A new operation needs an opcode in {@link CompiledExpression}, a definition in the static initializer
+ * and a case in {@link #apply(int, double, double)}; other evaluators fall back to it or to exact
+ * arithmetic of their own.
+ * <p>
+ * Defined operations, from the lowest precedence to the highest:
+ * <ul>
+ * <li>{@code +}, {@code -} - addition and subtraction;</li>
+ * <li>{@code *}, {@code /}, {@code %} - multiplication, division and remainder with the sign of dividend;</li>
+ * <li>{@code -} - unary minus, allowed at the start of statement, after opening bracket or comma;</li>
+ * <li>{@code ^} - power, right-associative, so <code>2^3^2</code> is <code>2^9</code>;</li>
+ * <li>functions {@code min(a, b)}, {@code max(a, b)}, {@code sqrt(a)} and {@code abs(a)}.</li>
+ * </ul>
+ */
+final class Operators {
+    static final int UNKNOWN = -1;
+    static final int MAX_ARITY = 2;
+
+    private static final int OPCODES = OPCODE_MASK + 1;
+    private static final int SYMBOLS = 128;
+
+    private static final int[] BINARY_OPERATORS = new int[SYMBOLS];
+    private static final int[] PREFIX_OPERATORS = new int[SYMBOLS];
+    private static final Map<String, Integer> FUNCTIONS = new HashMap<>();
+
+    private static final int[] ARITIES = new int[OPCODES];
+    private static final int[] PRECEDENCES = new int[OPCODES];
+    private static final boolean[] RIGHT_ASSOCIATIVE = new boolean[OPCODES];
+    private static final String[] NAMES = new String[OPCODES];
+
+    static {
+        Arrays.fill(BINARY_OPERATORS, UNKNOWN);
+        Arrays.fill(PREFIX_OPERATORS, UNKNOWN);
+
+        defineBinary(ADD, '+', 1, false);
+        defineBinary(SUBTRACT, '-', 1, false);
+        defineBinary(MULTIPLY, '*', 2, false);
+        defineBinary(DIVIDE, '/', 2, false);
+        defineBinary(REMAINDER, '%', 2, false);
+        definePrefix(NEGATE, '-', 3);
+        defineBinary(POWER, '^', 4, true);
+        defineFunction(MIN, "min", 2);
+        defineFunction(MAX, "max", 2);
+        defineFunction(SQRT, "sqrt", 1);
+        defineFunction(ABS, "abs", 1);
+    }
+
+    private Operators() {
+    }
+
+    private static void defineBinary(int opcode, char symbol, int precedence, boolean rightAssociative) {
+        BINARY_OPERATORS[symbol] = opcode;
+        define(opcode, String.valueOf(symbol), 2, precedence, rightAssociative);
+    }
+
+    private static void definePrefix(int opcode, char symbol, int precedence) {
+        PREFIX_OPERATORS[symbol] = opcode;
+        define(opcode, String.valueOf(symbol), 1, precedence, true);
+    }
+
+    private static void defineFunction(int opcode, String name, int arity) {
+        FUNCTIONS.put(name, opcode);
+        define(opcode, name, arity, 0, false);
+    }
+
+    private static void define(int opcode, String name, int arity, int precedence, boolean rightAssociative) {
+        NAMES[opcode] = name;
+        ARITIES[opcode] = arity;
+        PRECEDENCES[opcode] = precedence;
+        RIGHT_ASSOCIATIVE[opcode] = rightAssociative;
+    }
+
+    /**
+     * @param symbol symbol of statement.
+     * @return opcode of binary operator denoted by symbol or {@link #UNKNOWN}.
+     */
+    static int binaryOperator(char symbol) {
+        return symbol < SYMBOLS ? BINARY_OPERATORS[symbol] : UNKNOWN;
+    }
+
+    /**
+     * @param symbol symbol of statement.
+     * @return opcode of prefix operator denoted by symbol or {@link #UNKNOWN}.
+     */
+    static int prefixOperator(char symbol) {
+        return symbol < SYMBOLS ? PREFIX_OPERATORS[symbol] : UNKNOWN;
+    }
+
+    /**
+     * @param name name of function.
+     * @return opcode of function or {@link #UNKNOWN}.
+     */
+    static int function(String name) {
+        Integer opcode = FUNCTIONS.get(name);
+        return opcode == null ? UNKNOWN : opcode;
+    }
+
+    /**
+     * @param opcode opcode of operation.
+     * @return number of operands, 1 or 2.
+     */
+    static int arity(int opcode) {
+        return ARITIES[opcode];
+    }
+
+    /**
+     * @param opcode opcode of operator.
+     * @return precedence of operator, operators with higher precedence are applied first.
+     */
+    static int precedence(int opcode) {
+        return PRECEDENCES[opcode];
+    }
+
+    /**
+     * @param opcode opcode of operator.
+     * @return {@code true} if operators of the same precedence are applied from right to left.
+     */
+    static boolean isRightAssociative(int opcode) {
+        return RIGHT_ASSOCIATIVE[opcode];
+    }
+
+    /**
+     * @param opcode opcode of operation.
+     * @return symbol of operator or name of function.
+     */
+    static String nameOf(int opcode) {
+        return NAMES[opcode];
+    }
+
+    /**
+     * Applies operation in double arithmetic.
+     *
+     * @param opcode opcode of operation.
+     * @param first  the first or the only operand.
+     * @param second the second operand, ignored by unary operations.
+     * @return result of operation.
+     * @throws IllegalStateException if opcode is not an operation.
+     */
+    static double apply(int opcode, double first, double second) {
+        switch (opcode) {
+            case ADD:
+                return first + second;
+            case SUBTRACT:
+                return first - second;
+            case MULTIPLY:
+                return first * second;
+            case DIVIDE:
+                return first / second;
+            case REMAINDER:
+                return first % second;
+            case NEGATE:
+                return -first;
+            case POWER:
+                return Math.pow(first, second);
+            case MIN:
+                return Math.min(first, second);
+            case MAX:
+                return Math.max(first, second);
+            case SQRT:
+                return Math.sqrt(first);
+            case ABS:
+                return Math.abs(first);
+            default:
+                throw new IllegalStateException("Illegal opcode " + opcode);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of evaluation results which can be placed in front of {@link Calculator}.
+ * <p>
+ * Results are keyed on the statement without insignificant whitespace, so {@code "2 + 3"} and {@code "2+3"} share
+ * an entry. Null results of invalid statements are cached as well. The cache is split into segments, each
+ * of them is an independently locked LRU map, so eviction is least-recently-used within a segment and
+ * threads working with different statements rarely contend.
+ */
+public final class ResultCache {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final Object NULL_RESULT = new Object();
+
+    private final int capacity;
+    private final Segment[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates cache.
+     *
+     * @param capacity maximum number of cached results, must be positive.
+     * @throws IllegalArgumentException if capacity is not positive.
+     */
+    public ResultCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+
+        int segmentsCount = 1;
+        while (segmentsCount < MAX_SEGMENTS && capacity / (segmentsCount * 2) >= MIN_SEGMENT_CAPACITY) {
+            segmentsCount *= 2;
+        }
+        segments = new Segment[segmentsCount];
+        for (int i = 0; i < segmentsCount; i++) {
+            int segmentCapacity = capacity / segmentsCount + (i < capacity % segmentsCount ? 1 : 0);
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Returns cached result of statement or evaluates and caches it.
+     * Evaluation is performed outside of any lock, so the same statement can occasionally be evaluated
+     * by several threads at once.
+     *
+     * @param statement  statement to be evaluated, must not be null.
+     * @param evaluation function evaluating normalized statement.
+     * @return result of evaluation, can be null.
+     */
+    String computeIfAbsent(String statement, Function<String, String> evaluation) {
+        String key = normalize(statement);
+        Segment segment = segmentFor(key);
+
+        Object cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hitCount.increment();
+            return cached == NULL_RESULT ? null : (String) cached;
+        }
+
+        missCount.increment();
+        String result = evaluation.apply(key);
+        synchronized (segment) {
+            segment.put(key, result == null ? NULL_RESULT : result);
+        }
+        return result;
+    }
+
+    /**
+     * @return maximum number of cached results.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return current number of cached results.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return number of lookups answered from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return number of lookups which required evaluation.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return number of results removed to keep the cache within its capacity.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Removes all cached results. Counters are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * Removes whitespace symbols from statement. Whitespace separating a name from a following letter, digit
+     * or underscore is kept as a single space, so separate names are not joined into a name of function.
+     * Statement is returned as is if it has no whitespace.
+     *
+     * @param statement to be normalized.
+     * @return statement without insignificant whitespace symbols.
+     */
+    static String normalize(String statement) {
+        int length = statement.length();
+        int i = 0;
+        while (i < length && !CharacterClasses.isWhitespace(statement.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return statement;
+        }
+
+        StringBuilder normalized = new StringBuilder(length);
+        boolean name = false;
+        boolean namePart = false;
+        boolean whitespace = false;
+        for (i = 0; i < length; i++) {
+            char symbol = statement.charAt(i);
+            if (CharacterClasses.isWhitespace(symbol)) {
+                whitespace = true;
+                continue;
+            }
+            if (CharacterClasses.isIdentifierPart(symbol)) {
+                if (whitespace && name) {
+                    normalized.append(' ');
+                }
+                if (whitespace || !namePart) {
+                    name = CharacterClasses.isIdentifierStart(symbol);
+                }
+                namePart = true;
+            } else {
+                name = false;
+                namePart = false;
+            }
+            whitespace = false;
+            normalized.append(symbol);
+        }
+        return normalized.toString();
+    }
+
+    private final class Segment extends LinkedHashMap<String, Object> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() > capacity) {
+                evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
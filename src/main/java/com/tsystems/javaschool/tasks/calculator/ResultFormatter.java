@@ -0,0 +1,159 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Formats calculated values as results of {@link Calculator}.
+ * <p>
+ * Value is rounded to {@value #FRACTION_DIGITS} fraction digits, half up, and written in plain notation
+ * without trailing zeros, so {@code 2.50001} becomes {@code 2.5}, {@code 1e10} becomes {@code 10000000000}
+ * and {@code -0.00001} becomes {@code 0}. Values which are not finite numbers have no result.
+ * <p>
+ * Digits are written straight into the destination, values within long range are formatted without
+ * creating any objects. Larger values are integers and are written with all their digits, which goes
+ * through {@link BigDecimal}.
+ */
+public final class ResultFormatter {
+    /**
+     * Number of fraction digits the value is rounded to.
+     */
+    public static final int FRACTION_DIGITS = 4;
+    /**
+     * Maximum length of a result: sign and 309 digits of the largest double.
+     */
+    public static final int MAX_LENGTH = 310;
+
+    private static final long SCALE = 10000;
+    private static final double LONG_RANGE = 0x1p63;
+    private static final ThreadLocal<char[]> BUFFERS = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+
+    private ResultFormatter() {
+    }
+
+    /**
+     * Formats value into a new string.
+     *
+     * @param value calculated value.
+     * @return result or null if value is not a finite number.
+     */
+    public static String toString(double value) {
+        char[] buffer = BUFFERS.get();
+        int length = format(value, buffer, 0);
+        return length < 0 ? null : new String(buffer, 0, length);
+    }
+
+    /**
+     * Appends formatted value to builder.
+     *
+     * @param value  calculated value.
+     * @param result builder receiving the result, must not be null.
+     * @return {@code false} if value is not a finite number and nothing is appended.
+     */
+    public static boolean format(double value, StringBuilder result) {
+        char[] buffer = BUFFERS.get();
+        int length = format(value, buffer, 0);
+        if (length < 0) {
+            return false;
+        }
+        result.append(buffer, 0, length);
+        return true;
+    }
+
+    /**
+     * Writes formatted value as ASCII bytes at the position of buffer and advances the position.
+     *
+     * @param value  calculated value.
+     * @param result buffer receiving the result, must not be null.
+     * @return number of written bytes or -1 if value is not a finite number and nothing is written.
+     * @throws BufferOverflowException if the result does not fit into the remaining bytes, nothing is written then.
+     */
+    public static int format(double value, ByteBuffer result) {
+        char[] buffer = BUFFERS.get();
+        int length = format(value, buffer, 0);
+        if (length > result.remaining()) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < length; i++) {
+            result.put((byte) buffer[i]);
+        }
+        return length;
+    }
+
+    /**
+     * Writes formatted value into array, at most {@value #MAX_LENGTH} characters.
+     *
+     * @param value  calculated value.
+     * @param result array receiving the result, must not be null.
+     * @param offset index of the first character of the result.
+     * @return number of written characters or -1 if value is not a finite number and nothing is written.
+     * @throws IllegalArgumentException if offset is negative or the result does not fit into the array.
+     */
+    public static int format(double value, char[] result, int offset) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return -1;
+        }
+        if (Math.abs(value) >= LONG_RANGE) {
+            return formatLarge(value, result, offset);
+        }
+        // both parts have the sign of value, subtraction of the integer part is exact
+        long integerPart = (long) value;
+        long fractionPart = Math.round((value - integerPart) * SCALE);
+        boolean negative = integerPart < 0 || fractionPart < 0;
+        long integerDigits = Math.abs(integerPart);
+        long fractionDigits = Math.abs(fractionPart);
+        if (fractionDigits == SCALE) {
+            integerDigits++;
+            fractionDigits = 0;
+        }
+        negative &= integerDigits != 0 || fractionDigits != 0;
+
+        int fractionLength = FRACTION_DIGITS;
+        while (fractionLength > 0 && fractionDigits % 10 == 0) {
+            fractionDigits /= 10;
+            fractionLength--;
+        }
+        int length = (negative ? 1 : 0) + digits(integerDigits) + (fractionLength > 0 ? fractionLength + 1 : 0);
+        checkSpace(result, offset, length);
+
+        int position = offset + length;
+        for (int i = 0; i < fractionLength; i++) {
+            result[--position] = (char) ('0' + fractionDigits % 10);
+            fractionDigits /= 10;
+        }
+        if (fractionLength > 0) {
+            result[--position] = '.';
+        }
+        do {
+            result[--position] = (char) ('0' + integerDigits % 10);
+            integerDigits /= 10;
+        } while (integerDigits != 0);
+        if (negative) {
+            result[--position] = '-';
+        }
+        return length;
+    }
+
+    private static int formatLarge(double value, char[] result, int offset) {
+        String digits = new BigDecimal(value).toPlainString();
+        checkSpace(result, offset, digits.length());
+        digits.getChars(0, digits.length(), result, offset);
+        return digits.length();
+    }
+
+    private static void checkSpace(char[] result, int offset, int length) {
+        if (offset < 0 || offset > result.length - length) {
+            throw new IllegalArgumentException("Result of " + length + " characters does not fit at " + offset);
+        }
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
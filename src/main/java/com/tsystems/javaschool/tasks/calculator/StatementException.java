@@ -0,0 +1,34 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+/**
+ * Thrown when statement is incorrect, tells the reason and position of the error.
+ */
+final class StatementException extends IllegalArgumentException {
+    private final EvaluationError error;
+    private final int position;
+
+    /**
+     * @param error    reason of the error.
+     * @param position index of the symbol where the error was found, length of statement if it ended too early.
+     * @param message  detail message.
+     */
+    StatementException(EvaluationError error, int position, String message) {
+        super(message);
+        this.error = error;
+        this.position = position;
+    }
+
+    /**
+     * @return reason of the error.
+     */
+    EvaluationError getError() {
+        return error;
+    }
+
+    /**
+     * @return index of the symbol where the error was found.
+     */
+    int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,237 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.MathContext;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Evaluates streams of statements, one statement per line, writing one result per line.
+ * <p>
+ * Input is read into a fixed buffer and every complete line is evaluated straight from the buffer through
+ * a reusable character sequence view, so no string is created per line. Results are written into an output
+ * buffer which is flushed when full; results of double arithmetic are formatted straight into it.
+ * Memory usage is bounded by the buffer size or the longest line, whichever is bigger, and does not depend
+ * on the size of the stream.
+ * <p>
+ * Lines may end with {@code \n} or {@code \r\n}. Results of invalid statements are written as {@code null}.
+ * Instances must not be shared between threads.
+ * <p>
+ * Buffers are used through {@link Buffer} methods to stay binary compatible with Java 8, where
+ * {@link ByteBuffer} does not override them.
+ */
+final class StreamEvaluator {
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final String NULL_RESULT = "null";
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final DecimalEvaluator decimalEvaluator = new DecimalEvaluator();
+    private final AsciiCharSequence line = new AsciiCharSequence();
+    private final char[] result = new char[ResultFormatter.MAX_LENGTH];
+    private final MathContext mathContext;
+
+    /**
+     * @param mathContext context of decimal arithmetic or null for double arithmetic.
+     */
+    StreamEvaluator(MathContext mathContext) {
+        this.mathContext = mathContext;
+    }
+
+    /**
+     * Evaluates ASCII statements from channel.
+     *
+     * @param in  channel of statements.
+     * @param out channel receiving results.
+     * @return number of evaluated statements.
+     * @throws IOException if reading or writing fails.
+     */
+    long evaluate(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+        long statements = 0;
+        int scanned = 0;
+        boolean endOfInput = false;
+
+        try {
+            while (!endOfInput) {
+                endOfInput = in.read(input) < 0;
+                int end = input.position();
+                int lineStart = 0;
+                for (int i = scanned; i < end; i++) {
+                    if (input.get(i) == '\n') {
+                        writeResult(line(input, lineStart, i), output, out);
+                        statements++;
+                        lineStart = i + 1;
+                    }
+                }
+                if (endOfInput && lineStart < end) {
+                    writeResult(line(input, lineStart, end), output, out);
+                    statements++;
+                    lineStart = end;
+                }
+
+                ((Buffer) input).flip();
+                ((Buffer) input).position(lineStart);
+                input.compact();
+                scanned = input.position();
+                if (!input.hasRemaining()) {
+                    input = grow(input);
+                }
+            }
+            flush(output, out);
+        } finally {
+            line.clear();
+        }
+        return statements;
+    }
+
+    /**
+     * Evaluates statements from reader.
+     *
+     * @param in  reader of statements.
+     * @param out writer receiving results.
+     * @return number of evaluated statements.
+     * @throws IOException if reading or writing fails.
+     */
+    long evaluate(Reader in, Writer out) throws IOException {
+        char[] input = new char[BUFFER_SIZE];
+        CharBuffer inputLine = CharBuffer.wrap(input);
+        long statements = 0;
+        int size = 0;
+        int scanned = 0;
+        boolean endOfInput = false;
+
+        while (!endOfInput) {
+            int read = in.read(input, size, input.length - size);
+            endOfInput = read < 0;
+            size += Math.max(read, 0);
+            int lineStart = 0;
+            for (int i = scanned; i < size; i++) {
+                if (input[i] == '\n') {
+                    evaluateLine(inputLine, lineStart, i, out);
+                    statements++;
+                    lineStart = i + 1;
+                }
+            }
+            if (endOfInput && lineStart < size) {
+                evaluateLine(inputLine, lineStart, size, out);
+                statements++;
+                lineStart = size;
+            }
+
+            System.arraycopy(input, lineStart, input, 0, size - lineStart);
+            size -= lineStart;
+            scanned = size;
+            if (size == input.length) {
+                input = Arrays.copyOf(input, input.length * 2);
+                inputLine = CharBuffer.wrap(input);
+            }
+        }
+        out.flush();
+        return statements;
+    }
+
+    private CharSequence line(ByteBuffer input, int start, int end) {
+        if (end > start && input.get(end - 1) == '\r') {
+            end--;
+        }
+        return line.set(input, start, end - start);
+    }
+
+    private void evaluateLine(CharBuffer input, int start, int end, Writer out) throws IOException {
+        if (end > start && input.get(end - 1) == '\r') {
+            end--;
+        }
+        ((Buffer) input).limit(end);
+        ((Buffer) input).position(start);
+        try {
+            writeResult(input, out);
+        } finally {
+            ((Buffer) input).clear();
+        }
+    }
+
+    /**
+     * Evaluates statement and writes its result followed by line break. Results of double arithmetic are
+     * formatted straight into the output buffer.
+     */
+    private void writeResult(CharSequence statement, ByteBuffer output, WritableByteChannel out)
+            throws IOException {
+        if (mathContext != null) {
+            String result = Calculator.evaluateStatement(decimalEvaluator, statement, mathContext);
+            writeText(result == null ? NULL_RESULT : result, output, out);
+            return;
+        }
+        double value = evaluator.evaluate(statement);
+        if (output.remaining() < ResultFormatter.MAX_LENGTH + 1) {
+            flush(output, out);
+        }
+        if (ResultFormatter.format(value, output) < 0) {
+            putAscii(NULL_RESULT, output);
+        }
+        output.put((byte) '\n');
+    }
+
+    private void writeResult(CharSequence statement, Writer out) throws IOException {
+        if (mathContext != null) {
+            String result = Calculator.evaluateStatement(decimalEvaluator, statement, mathContext);
+            out.write(result == null ? NULL_RESULT : result);
+        } else {
+            int length = ResultFormatter.format(evaluator.evaluate(statement), result, 0);
+            if (length < 0) {
+                out.write(NULL_RESULT);
+            } else {
+                out.write(result, 0, length);
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeText(String text, ByteBuffer output, WritableByteChannel out) throws IOException {
+        if (output.remaining() < text.length() + 1) {
+            flush(output, out);
+        }
+        if (text.length() < output.remaining()) {
+            putAscii(text, output);
+        } else {
+            // decimal results may be longer than the buffer
+            for (int i = 0; i < text.length(); i++) {
+                if (!output.hasRemaining()) {
+                    flush(output, out);
+                }
+                output.put((byte) text.charAt(i));
+            }
+            if (!output.hasRemaining()) {
+                flush(output, out);
+            }
+        }
+        output.put((byte) '\n');
+    }
+
+    private static void putAscii(String text, ByteBuffer output) {
+        for (int i = 0; i < text.length(); i++) {
+            output.put((byte) text.charAt(i));
+        }
+    }
+
+    private static void flush(ByteBuffer output, WritableByteChannel out) throws IOException {
+        ((Buffer) output).flip();
+        while (output.hasRemaining()) {
+            out.write(output);
+        }
+        ((Buffer) output).clear();
+    }
+
+    private static ByteBuffer grow(ByteBuffer input) {
+        ByteBuffer grown = ByteBuffer.allocate(input.capacity() * 2);
+        ((Buffer) input).flip();
+        grown.put(input);
+        return grown;
+    }
+}
@@ -0,0 +1,86 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+/**
+ * Numbers distinct elements in order of addition, elements are compared by reference.
+ * <p>
+ * Elements are kept in an open addressing table by identity hash code, null is a valid element.
+ * Table is not thread-safe while elements are added.
+ */
+final class IdentityTable {
+    private static final Object NULL_ELEMENT = new Object();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    /**
+     * Numbers of elements in the slots of {@link #elements}.
+     */
+    private int[] numbers = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @param element element to add.
+     * @return number of the element, new number if it has not been added yet.
+     */
+    int add(Object element) {
+        Object key = element == null ? NULL_ELEMENT : element;
+        int slot = slot(elements, key);
+        if (elements[slot] != null) {
+            return numbers[slot];
+        }
+        elements[slot] = key;
+        numbers[slot] = size;
+        if (++size * 2 > elements.length) {
+            grow();
+        }
+        return size - 1;
+    }
+
+    /**
+     * @param element searched element.
+     * @return number of the element or -1 if it has not been added.
+     */
+    int numberOf(Object element) {
+        int slot = slot(elements, element == null ? NULL_ELEMENT : element);
+        return elements[slot] == null ? -1 : numbers[slot];
+    }
+
+    /**
+     * @return number of distinct elements.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Estimates memory retained by the table, not including elements. Estimation assumes compressed references.
+     *
+     * @return size of the table in bytes.
+     */
+    long getMemoryUsage() {
+        return MemoryUsage.OBJECT_SIZE + MemoryUsage.ofReferences(elements.length) + MemoryUsage.ofInts(numbers.length);
+    }
+
+    private void grow() {
+        Object[] grownElements = new Object[elements.length * 2];
+        int[] grownNumbers = new int[grownElements.length];
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] != null) {
+                int slot = slot(grownElements, elements[i]);
+                grownElements[slot] = elements[i];
+                grownNumbers[slot] = numbers[i];
+            }
+        }
+        elements = grownElements;
+        numbers = grownNumbers;
+    }
+
+    private static int slot(Object[] table, Object key) {
+        int mask = table.length - 1;
+        int hash = System.identityHashCode(key) * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (table[slot] != null && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
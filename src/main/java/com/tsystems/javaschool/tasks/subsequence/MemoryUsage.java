@@ -0,0 +1,37 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+/**
+ * Estimates of object sizes on a 64-bit JVM with compressed references.
+ */
+final class MemoryUsage {
+    /**
+     * Size of a small object with header and a few fields.
+     */
+    static final long OBJECT_SIZE = 32;
+
+    private static final int REFERENCE_SIZE = 4;
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    private MemoryUsage() {
+    }
+
+    /**
+     * @param length length of array.
+     * @return size of {@code int} array in bytes.
+     */
+    static long ofInts(int length) {
+        return ofArray(length, Integer.BYTES);
+    }
+
+    /**
+     * @param length length of array.
+     * @return size of reference array in bytes, not including referenced objects.
+     */
+    static long ofReferences(int length) {
+        return ofArray(length, REFERENCE_SIZE);
+    }
+
+    private static long ofArray(int length, int elementSize) {
+        return (ARRAY_HEADER_SIZE + (long) length * elementSize + 7) & ~7L;
+    }
+}
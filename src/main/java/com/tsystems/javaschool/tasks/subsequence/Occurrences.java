@@ -0,0 +1,101 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Searches for the next occurrence of a value in primitive sequences.
+ * <p>
+ * Bytes are compared eight at a time: a word of the sequence is XOR-ed with the value repeated in every byte,
+ * so matching bytes become zero, and the lowest zero byte is found with a few arithmetic operations.
+ */
+final class Occurrences {
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private Occurrences() {
+    }
+
+    /**
+     * @param array sequence to search.
+     * @param value searched value.
+     * @param from  index to start search from.
+     * @return index of the first occurrence at or after from, or -1 if there is none.
+     */
+    static int indexOf(int[] array, int value, int from) {
+        for (int i = from; i < array.length; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array sequence to search.
+     * @param value searched value.
+     * @param from  index to start search from.
+     * @return index of the first occurrence at or after from, or -1 if there is none.
+     */
+    static int indexOf(long[] array, long value, int from) {
+        for (int i = from; i < array.length; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param sequence sequence to search.
+     * @param value    searched value.
+     * @param from     index to start search from.
+     * @return index of the first occurrence at or after from, or -1 if there is none.
+     */
+    static int indexOf(CharSequence sequence, char value, int from) {
+        if (sequence instanceof String) {
+            return ((String) sequence).indexOf(value, from);
+        }
+        for (int i = from; i < sequence.length(); i++) {
+            if (sequence.charAt(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array sequence to search.
+     * @param value searched value.
+     * @param from  index to start search from.
+     * @return index of the first occurrence at or after from, or -1 if there is none.
+     */
+    static int indexOf(byte[] array, byte value, int from) {
+        // near occurrences are found faster one by one
+        int bytesEnd = Math.min(array.length, from + Long.BYTES);
+        for (int i = from; i < bytesEnd; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        int i = bytesEnd;
+        if (array.length - i >= Long.BYTES) {
+            ByteBuffer words = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+            long pattern = (value & 0xFFL) * LOW_BITS;
+            for (; i <= array.length - Long.BYTES; i += Long.BYTES) {
+                long word = words.getLong(i) ^ pattern;
+                // borrows may only mark bytes above the lowest zero byte, so the lowest mark is exact
+                long zeros = (word - LOW_BITS) & ~word & HIGH_BITS;
+                if (zeros != 0) {
+                    return i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+                }
+            }
+        }
+        for (; i < array.length; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,267 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks subsequences like {@link Subsequence#find(List, List)}, scanning parts of the second sequence in parallel.
+ * <p>
+ * Greedy matching of a part of the second sequence maps the position in the first sequence on entry into
+ * the part to the position on exit. Parts are scanned on a fork/join pool, each one computes this transition
+ * for all entry positions at once: matching cursors of all entries advance together and merge when they meet,
+ * because they have the same future then. The first part is simply scanned from the start. Transitions are then
+ * applied one after another to get the final position.
+ * <p>
+ * Transition of a part costs time and memory proportional to the length of the first sequence, so the second
+ * sequence is split into parts much longer than the first one. If cursors of a part do not merge and advancing
+ * them takes much longer than a scan, computation of the transition is abandoned and the part is scanned
+ * from the known entry position.
+ * <p>
+ * Finding the element of the first sequence an element of a part is equal to takes an identity hash lookup,
+ * which reads the element itself, while a sequential scan only compares references. Parts are faster only on
+ * several cores, a few distinct elements of the first sequence are compared one by one instead of the lookup.
+ * Short sequences, lists without fast random access and pools without parallelism are checked sequentially.
+ */
+public class ParallelSubsequence {
+    /**
+     * Minimum number of elements of the second sequence in a part.
+     */
+    static final int MIN_PART_SIZE = 1 << 16;
+    /**
+     * Minimum ratio of part size to the length of the first sequence.
+     */
+    static final int PART_SIZE_RATIO = 16;
+    /**
+     * Maximum number of cursor moves per element of a part before its transition is abandoned.
+     */
+    static final int MOVES_PER_ELEMENT = 2;
+    /**
+     * Maximum number of distinct elements of the first sequence which are searched by comparison with each of them.
+     */
+    static final int MAX_COMPARED_ELEMENTS = 16;
+
+    private final ForkJoinPool pool;
+    private final Subsequence subsequence = new Subsequence();
+
+    /**
+     * Creates check running on the common fork/join pool.
+     */
+    public ParallelSubsequence() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates check running on the pool.
+     *
+     * @param pool pool scanning parts of the second sequence.
+     */
+    public ParallelSubsequence(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Checks if it is possible to get a sequence which is equal to the first
+     * one by removing some elements from the second one.
+     *
+     * @param x first sequence
+     * @param y second sequence
+     * @return <code>true</code> if possible, otherwise <code>false</code>
+     */
+    @SuppressWarnings("rawtypes")
+    public boolean find(List x, List y) {
+        if (x == null || y == null) {
+            throw new IllegalArgumentException("Lists must not be null");
+        }
+        int partSize = Math.max(MIN_PART_SIZE, (int) Math.min(Integer.MAX_VALUE, (x.size() + 1L) * PART_SIZE_RATIO));
+        int parts = Math.min(y.size() / partSize, pool.getParallelism() * 4);
+        if (parts < 2 || pool.getParallelism() < 2 || x.isEmpty()
+                || !(x instanceof RandomAccess) || !(y instanceof RandomAccess)) {
+            return subsequence.find(x, y);
+        }
+        Search search = new Search(x, y, parts);
+        pool.invoke(search.new PartTask(0, parts));
+        return search.combine() == x.size();
+    }
+
+    /**
+     * State of a single parallel check.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final class Search {
+        private final List x;
+        private final List y;
+        private final IdentityTable elements = new IdentityTable();
+        /**
+         * Distinct elements of the first sequence by their numbers, null if there are too many to compare.
+         */
+        private final Object[] comparedElements;
+        /**
+         * Numbers of elements of the first sequence.
+         */
+        private final int[] numbers;
+        private final int[] partStarts;
+        /**
+         * Transitions of parts, null if abandoned.
+         */
+        private final int[][] transitions;
+        private int firstPartExit;
+
+        Search(List x, List y, int parts) {
+            this.x = x;
+            this.y = y;
+            numbers = new int[x.size()];
+            Object[] distinct = new Object[MAX_COMPARED_ELEMENTS];
+            for (int i = 0; i < numbers.length; i++) {
+                Object element = x.get(i);
+                numbers[i] = elements.add(element);
+                if (numbers[i] < MAX_COMPARED_ELEMENTS) {
+                    distinct[numbers[i]] = element;
+                }
+            }
+            comparedElements = elements.size() <= MAX_COMPARED_ELEMENTS
+                    ? Arrays.copyOf(distinct, elements.size()) : null;
+            partStarts = new int[parts + 1];
+            for (int part = 0; part <= parts; part++) {
+                partStarts[part] = (int) ((long) y.size() * part / parts);
+            }
+            transitions = new int[parts][];
+        }
+
+        int combine() {
+            int position = firstPartExit;
+            for (int part = 1; part < transitions.length && position < numbers.length; part++) {
+                position = transitions[part] != null ? transitions[part][position] : scan(part, position);
+            }
+            return position;
+        }
+
+        int scan(int part, int entry) {
+            int position = entry;
+            for (int i = partStarts[part]; i < partStarts[part + 1] && position < numbers.length; i++) {
+                if (x.get(position) == y.get(i)) {
+                    position++;
+                }
+            }
+            return position;
+        }
+
+        /**
+         * Advances cursors of all entry positions over the part. Cursors are grouped, every group is named after
+         * the entry it started from and waits in the bucket of the element at its position.
+         *
+         * @return position on exit for every entry position or null if cursors take too many moves.
+         */
+        int[] transition(int part) {
+            int length = numbers.length;
+            int[] positions = new int[length];
+            int[] parents = new int[length];
+            int[] groupsAt = new int[length + 1];
+            int[] next = new int[length];
+            int[] heads = new int[elements.size()];
+            Arrays.fill(heads, -1);
+            for (int group = length - 1; group >= 0; group--) {
+                positions[group] = group;
+                parents[group] = group;
+                groupsAt[group] = group;
+                next[group] = heads[numbers[group]];
+                heads[numbers[group]] = group;
+            }
+            groupsAt[length] = -1;
+
+            long movesLeft = (long) MOVES_PER_ELEMENT * (partStarts[part + 1] - partStarts[part]);
+            for (int i = partStarts[part]; i < partStarts[part + 1]; i++) {
+                int number = numberOf(y.get(i));
+                if (number < 0 || heads[number] < 0) {
+                    continue;
+                }
+                int moving = heads[number];
+                heads[number] = -1;
+                // groups leave their positions before any of them arrives, a group may arrive where another left
+                for (int group = moving; group >= 0; group = next[group]) {
+                    groupsAt[positions[group]++] = -1;
+                    movesLeft--;
+                }
+                if (movesLeft < 0) {
+                    return null;
+                }
+                for (int group = moving; group >= 0; ) {
+                    int following = next[group];
+                    int position = positions[group];
+                    if (groupsAt[position] >= 0) {
+                        parents[group] = groupsAt[position];
+                    } else {
+                        groupsAt[position] = group;
+                        if (position < length) {
+                            next[group] = heads[numbers[position]];
+                            heads[numbers[position]] = group;
+                        }
+                    }
+                    group = following;
+                }
+            }
+
+            int[] transition = new int[length + 1];
+            for (int entry = 0; entry < length; entry++) {
+                transition[entry] = positions[root(parents, entry)];
+            }
+            transition[length] = length;
+            return transition;
+        }
+
+        private int numberOf(Object element) {
+            if (comparedElements == null) {
+                return elements.numberOf(element);
+            }
+            for (int number = 0; number < comparedElements.length; number++) {
+                if (comparedElements[number] == element) {
+                    return number;
+                }
+            }
+            return -1;
+        }
+
+        private static int root(int[] parents, int group) {
+            int root = group;
+            while (parents[root] != root) {
+                root = parents[root];
+            }
+            while (parents[group] != root) {
+                int parent = parents[group];
+                parents[group] = root;
+                group = parent;
+            }
+            return root;
+        }
+
+        /**
+         * Computes transitions of a range of parts, splitting the range in halves.
+         */
+        final class PartTask extends RecursiveAction {
+            private final int from;
+            private final int to;
+
+            PartTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > 1) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new PartTask(from, middle), new PartTask(middle, to));
+                } else if (from == 0) {
+                    firstPartExit = scan(0, 0);
+                } else {
+                    transitions[from] = transition(from);
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.tsystems.javaschool.tasks.subsequence;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 
 public class Subsequence {
 
     /**
      * Checks if it is possible to get a sequence which is equal to the first
      * one by removing some elements from the second one.
+     * <p>
+     * Lists supporting fast random access are walked by index, any other lists by their iterators,
+     * so the check takes time linear in the sizes of both lists for every list implementation.
      *
      * @param x first sequence
      * @param y second sequence
@@ -17,6 +22,9 @@ public class Subsequence {
         if (x == null || y == null) {
             throw new IllegalArgumentException("Lists must not be null");
         }
+        if (!(x instanceof RandomAccess) || !(y instanceof RandomAccess)) {
+            return findByIterators(x, y);
+        }
 
         int indexInShortSequence = 0;
         int shortSequenceSize = x.size();
@@ -33,4 +41,139 @@ public class Subsequence {
 
         return (indexInShortSequence == shortSequenceSize);
     }
+
+    /**
+     * Checks if it is possible to get a sequence which is equal to the first
+     * one by removing some elements from the second one.
+     * <p>
+     * Each sequence is iterated once and elements of the second one are not requested
+     * after the whole first sequence is found.
+     *
+     * @param x first sequence
+     * @param y second sequence
+     * @return <code>true</code> if possible, otherwise <code>false</code>
+     */
+    @SuppressWarnings("rawtypes")
+    public boolean find(Iterable x, Iterable y) {
+        if (x == null || y == null) {
+            throw new IllegalArgumentException("Sequences must not be null");
+        }
+        if (x instanceof List && y instanceof List) {
+            return find((List) x, (List) y);
+        }
+        return findByIterators(x, y);
+    }
+
+    /**
+     * Checks if it is possible to get a sequence which is equal to the first
+     * one by removing some elements from the second one.
+     *
+     * @param x first sequence
+     * @param y second sequence
+     * @return <code>true</code> if possible, otherwise <code>false</code>
+     */
+    public boolean find(int[] x, int[] y) {
+        if (x == null || y == null) {
+            throw new IllegalArgumentException("Arrays must not be null");
+        }
+        int position = 0;
+        for (int element : x) {
+            position = Occurrences.indexOf(y, element, position);
+            if (position < 0) {
+                return false;
+            }
+            position++;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if it is possible to get a sequence which is equal to the first
+     * one by removing some elements from the second one.
+     *
+     * @param x first sequence
+     * @param y second sequence
+     * @return <code>true</code> if possible, otherwise <code>false</code>
+     */
+    public boolean find(long[] x, long[] y) {
+        if (x == null || y == null) {
+            throw new IllegalArgumentException("Arrays must not be null");
+        }
+        int position = 0;
+        for (long element : x) {
+            position = Occurrences.indexOf(y, element, position);
+            if (position < 0) {
+                return false;
+            }
+            position++;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if it is possible to get a sequence which is equal to the first
+     * one by removing some elements from the second one.
+     * <p>
+     * The second sequence is searched eight bytes at a time.
+     *
+     * @param x first sequence
+     * @param y second sequence
+     * @return <code>true</code> if possible, otherwise <code>false</code>
+     */
+    public boolean find(byte[] x, byte[] y) {
+        if (x == null || y == null) {
+            throw new IllegalArgumentException("Arrays must not be null");
+        }
+        int position = 0;
+        for (byte element : x) {
+            position = Occurrences.indexOf(y, element, position);
+            if (position < 0) {
+                return false;
+            }
+            position++;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if it is possible to get a sequence which is equal to the first
+     * one by removing some characters from the second one.
+     *
+     * @param x first sequence
+     * @param y second sequence
+     * @return <code>true</code> if possible, otherwise <code>false</code>
+     */
+    public boolean find(CharSequence x, CharSequence y) {
+        if (x == null || y == null) {
+            throw new IllegalArgumentException("Sequences must not be null");
+        }
+        int position = 0;
+        for (int i = 0; i < x.length(); i++) {
+            position = Occurrences.indexOf(y, x.charAt(i), position);
+            if (position < 0) {
+                return false;
+            }
+            position++;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static boolean findByIterators(Iterable x, Iterable y) {
+        Iterator shortSequence = x.iterator();
+        Iterator longSequence = y.iterator();
+
+        while (shortSequence.hasNext()) {
+            Object element = shortSequence.next();
+            boolean found = false;
+            while (!found && longSequence.hasNext()) {
+                found = longSequence.next() == element;
+            }
+            if (!found) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
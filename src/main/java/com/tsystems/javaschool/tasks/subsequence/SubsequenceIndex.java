@@ -0,0 +1,123 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Index of a sequence answering whether other sequences are its subsequences, like
+ * {@link Subsequence#find(Iterable, Iterable)} with the indexed sequence as the second one.
+ * <p>
+ * Positions of each distinct element are kept sorted, grouped by element in a single {@code int} array.
+ * Every element of the checked sequence is found by binary search of its next position, so a check takes
+ * {@code O(|x| log |y|)} time instead of scanning the whole indexed sequence. Elements are compared by
+ * reference, the index holds references to the distinct elements but does not hold the indexed sequence.
+ * <p>
+ * Index is immutable and may be shared between threads.
+ */
+public final class SubsequenceIndex {
+    private final int size;
+    private final IdentityTable elements;
+    /**
+     * Positions of element with number {@code i} are {@code positions[offsets[i]]..positions[offsets[i + 1] - 1]}.
+     */
+    private final int[] offsets;
+    private final int[] positions;
+
+    /**
+     * Builds index of sequence.
+     *
+     * @param y indexed sequence, iterated once.
+     */
+    @SuppressWarnings("rawtypes")
+    public SubsequenceIndex(Iterable y) {
+        if (y == null) {
+            throw new IllegalArgumentException("Sequence must not be null");
+        }
+        IdentityTable elements = new IdentityTable();
+        int[] numbers = new int[y instanceof Collection ? Math.max(((Collection) y).size(), 16) : 16];
+        int count = 0;
+        for (Object element : (Iterable<?>) y) {
+            if (count == numbers.length) {
+                if (count == Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Sequence is too long to be indexed");
+                }
+                numbers = Arrays.copyOf(numbers, (int) Math.min(count * 2L, Integer.MAX_VALUE - 8));
+            }
+            numbers[count++] = elements.add(element);
+        }
+
+        int distinct = elements.size();
+        int[] offsets = new int[distinct + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[numbers[i] + 1]++;
+        }
+        for (int i = 0; i < distinct; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] positions = new int[count];
+        int[] next = Arrays.copyOf(offsets, distinct);
+        for (int i = 0; i < count; i++) {
+            positions[next[numbers[i]]++] = i;
+        }
+
+        this.size = count;
+        this.elements = elements;
+        this.offsets = offsets;
+        this.positions = positions;
+    }
+
+    /**
+     * Checks if it is possible to get the sequence by removing some elements from the indexed one.
+     *
+     * @param x checked sequence
+     * @return <code>true</code> if possible, otherwise <code>false</code>
+     */
+    @SuppressWarnings("rawtypes")
+    public boolean find(Iterable x) {
+        if (x == null) {
+            throw new IllegalArgumentException("Sequence must not be null");
+        }
+        int position = -1;
+        for (Object element : (Iterable<?>) x) {
+            int number = elements.numberOf(element);
+            if (number < 0) {
+                return false;
+            }
+            int end = offsets[number + 1];
+            int index = Arrays.binarySearch(positions, offsets[number], end, position + 1);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index == end) {
+                return false;
+            }
+            position = positions[index];
+        }
+        return true;
+    }
+
+    /**
+     * @return number of elements in the indexed sequence.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of distinct elements in the indexed sequence.
+     */
+    public int getDistinctCount() {
+        return elements.size();
+    }
+
+    /**
+     * Estimates memory retained by the index, not including the indexed elements themselves.
+     * Estimation assumes compressed object references.
+     *
+     * @return size of the index in bytes.
+     */
+    public long getMemoryUsage() {
+        return MemoryUsage.OBJECT_SIZE + elements.getMemoryUsage() + MemoryUsage.ofInts(offsets.length)
+                + MemoryUsage.ofInts(positions.length);
+    }
+}
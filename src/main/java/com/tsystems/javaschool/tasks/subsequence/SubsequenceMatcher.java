@@ -0,0 +1,172 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Checks which of many sequences are subsequences of another one, like {@link Subsequence#find(Iterable, Iterable)}
+ * called for every pattern, in a single pass over the second sequence.
+ * <p>
+ * Every pattern waits for its next element. Patterns waiting for the same element are linked into a bucket of
+ * this element, so an element of the scanned sequence advances only the patterns waiting for it and moves them
+ * into the buckets of their next elements. Matching takes time proportional to the length of the scanned
+ * sequence plus the total length of the patterns. Elements are compared by reference.
+ * <p>
+ * Matcher is immutable and may be shared between threads, every {@link Matching} is used by a single thread.
+ */
+public final class SubsequenceMatcher {
+    private final IdentityTable elements;
+    /**
+     * Numbers of elements of every pattern.
+     */
+    private final int[][] patterns;
+
+    /**
+     * Creates matcher of the patterns.
+     *
+     * @param patterns sequences to search, every one is iterated once.
+     */
+    @SuppressWarnings("rawtypes")
+    public SubsequenceMatcher(Iterable<? extends Iterable> patterns) {
+        if (patterns == null) {
+            throw new IllegalArgumentException("Patterns must not be null");
+        }
+        IdentityTable elements = new IdentityTable();
+        int[][] numbers = new int[16][];
+        int count = 0;
+        for (Iterable pattern : patterns) {
+            if (pattern == null) {
+                throw new IllegalArgumentException("Pattern " + count + " must not be null");
+            }
+            int[] patternNumbers = new int[16];
+            int length = 0;
+            for (Object element : (Iterable<?>) pattern) {
+                if (length == patternNumbers.length) {
+                    patternNumbers = Arrays.copyOf(patternNumbers, length * 2);
+                }
+                patternNumbers[length++] = elements.add(element);
+            }
+            if (count == numbers.length) {
+                numbers = Arrays.copyOf(numbers, count * 2);
+            }
+            numbers[count++] = Arrays.copyOf(patternNumbers, length);
+        }
+        this.elements = elements;
+        this.patterns = Arrays.copyOf(numbers, count);
+    }
+
+    /**
+     * Finds the patterns which can be built by removing some elements from the sequence.
+     * Sequence is not iterated further when all patterns are found.
+     *
+     * @param y scanned sequence.
+     * @return set of indexes of the found patterns in order of creation of this matcher.
+     */
+    @SuppressWarnings("rawtypes")
+    public BitSet find(Iterable y) {
+        if (y == null) {
+            throw new IllegalArgumentException("Sequence must not be null");
+        }
+        Matching matching = start();
+        for (Object element : (Iterable<?>) y) {
+            if (matching.isComplete()) {
+                break;
+            }
+            matching.accept(element);
+        }
+        return matching.getMatches();
+    }
+
+    /**
+     * Starts matching of a sequence which is passed element by element.
+     *
+     * @return new matching, no element is accepted yet.
+     */
+    public Matching start() {
+        return new Matching();
+    }
+
+    /**
+     * @return number of patterns.
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    /**
+     * Progress of patterns over a sequence which is scanned once. Not thread-safe.
+     */
+    public final class Matching {
+        /**
+         * Index of the element every pattern waits for.
+         */
+        private final int[] cursors = new int[patterns.length];
+        /**
+         * Next pattern in the same bucket, -1 at the end of bucket.
+         */
+        private final int[] next = new int[patterns.length];
+        /**
+         * First pattern in the bucket of every element, -1 if nobody waits for the element.
+         */
+        private final int[] heads = new int[elements.size()];
+        private final BitSet matches = new BitSet(patterns.length);
+        private int remaining = patterns.length;
+
+        private Matching() {
+            Arrays.fill(heads, -1);
+            for (int pattern = 0; pattern < patterns.length; pattern++) {
+                if (patterns[pattern].length == 0) {
+                    matches.set(pattern);
+                    remaining--;
+                } else {
+                    enqueue(pattern, patterns[pattern][0]);
+                }
+            }
+        }
+
+        /**
+         * Advances patterns waiting for the next element of the scanned sequence.
+         *
+         * @param element next element.
+         */
+        public void accept(Object element) {
+            int number = elements.numberOf(element);
+            if (number < 0 || heads[number] < 0) {
+                return;
+            }
+            int pattern = heads[number];
+            heads[number] = -1;
+            while (pattern >= 0) {
+                int following = next[pattern];
+                int[] patternNumbers = patterns[pattern];
+                int cursor = ++cursors[pattern];
+                if (cursor == patternNumbers.length) {
+                    matches.set(pattern);
+                    remaining--;
+                } else {
+                    enqueue(pattern, patternNumbers[cursor]);
+                }
+                pattern = following;
+            }
+        }
+
+        /**
+         * @return {@code true} if all patterns are found and further elements change nothing.
+         */
+        public boolean isComplete() {
+            return remaining == 0;
+        }
+
+        /**
+         * @return set of indexes of the patterns found among the accepted elements.
+         */
+        public BitSet getMatches() {
+            return (BitSet) matches.clone();
+        }
+
+        private void enqueue(int pattern, int number) {
+            next[pattern] = heads[number];
+            heads[number] = pattern;
+        }
+    }
+}
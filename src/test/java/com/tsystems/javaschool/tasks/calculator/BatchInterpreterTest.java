@@ -0,0 +1,124 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class BatchInterpreterTest {
+
+    private Calculator calc = new Calculator();
+
+    @Test
+    public void calculateAll() {
+        //given
+        CompiledExpression expression = calc.compile("(a + 38) * rate - b / 2");
+        double[][] columns = {
+                {1, 2, 3},
+                {4, 4.5, 0},
+                {5, 1, 7}};
+        double[] results = new double[3];
+        long[] validity = new long[1];
+
+        //run
+        int validRows = expression.calculateAll(columns, results, validity);
+
+        //assert
+        Assert.assertEquals(3, validRows);
+        Assert.assertArrayEquals(new double[]{(1 + 38) * 4 - 5 / 2.0, (2 + 38) * 4.5 - 1 / 2.0, -3.5}, results, 0);
+        Assert.assertEquals(0b111L, validity[0]);
+    }
+
+    @Test
+    public void calculateAll1() {
+        //given
+        CompiledExpression expression = calc.compile("x / y");
+        int rows = 130;
+        double[][] columns = new double[2][rows];
+        for (int i = 0; i < rows; i++) {
+            columns[0][i] = i;
+            columns[1][i] = i % 10;
+        }
+        double[] results = new double[rows];
+        long[] validity = {-1L, -1L, -1L};
+
+        //run
+        int validRows = expression.calculateAll(columns, results, validity);
+
+        //assert
+        Assert.assertEquals(rows - 13, validRows);
+        for (int i = 0; i < rows; i++) {
+            boolean valid = (validity[i / 64] & (1L << i)) != 0;
+            Assert.assertEquals("Row " + i, i % 10 != 0, valid);
+            Assert.assertEquals(expression.evaluate(columns[0][i], columns[1][i]) != null, valid);
+        }
+        Assert.assertEquals(0L, validity[2] >>> 2);
+    }
+
+    @Test
+    public void calculateAll2() {
+        //given
+        CompiledExpression expression = calc.compile("2 * 3 + 1");
+        double[] results = new double[5];
+
+        //run
+        int validRows = expression.calculateAll(new double[0][], results, null);
+
+        //assert
+        Assert.assertEquals(5, validRows);
+        Assert.assertArrayEquals(new double[]{7, 7, 7, 7, 7}, results, 0);
+    }
+
+    @Test
+    public void calculateAll3() {
+        //given
+        CompiledExpression expression = calc.compile("(a - b) * (c + 2.5 / a) - (b * 3 - (c / (a + b) - 1))");
+        Random random = new Random(42);
+        int rows = 5000;
+        double[][] columns = new double[3][rows];
+        for (double[] column : columns) {
+            for (int i = 0; i < rows; i++) {
+                column[i] = random.nextInt(200) - 100;
+            }
+        }
+        double[] results = new double[rows];
+
+        //run
+        expression.calculateAll(columns, results, null);
+
+        //assert
+        for (int i = 0; i < rows; i++) {
+            double expected = expression.calculate(columns[0][i], columns[1][i], columns[2][i]);
+            Assert.assertEquals("Row " + i, expected, results[i], 0);
+        }
+    }
+
+    @Test
+    public void calculateAll5() {
+        //given
+        CompiledExpression expression = calc.compile("-max(a, 2) ^ 2 % b + sqrt(abs(b)) - min(-a, 4 % 3)");
+        double[][] columns = {{1, 3, -4, 5.5}, {2, -9, 0, 4}};
+        double[] results = new double[4];
+
+        //run
+        expression.calculateAll(columns, results, null);
+
+        //assert
+        for (int i = 0; i < results.length; i++) {
+            double expected = expression.calculate(columns[0][i], columns[1][i]);
+            Assert.assertEquals("Row " + i, expected, results[i], 0);
+        }
+        Assert.assertEquals(-4 % 2.0 + Math.sqrt(2) + 1, results[0], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void calculateAll4() {
+        //given
+        CompiledExpression expression = calc.compile("a + b");
+
+        //run
+        expression.calculateAll(new double[][]{{1, 2}, {1}}, new double[2], null);
+
+        //assert: exception
+    }
+}
@@ -0,0 +1,166 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkEvaluatorTest {
+
+    private Calculator calc = new Calculator();
+
+    @Test
+    public void evaluateAll() {
+        //given
+        List<String> statements = generateStatements(10_000);
+        List<String> expectedResults = evaluateSequentially(statements);
+
+        //run
+        List<String> results = calc.evaluateAll(statements);
+
+        //assert
+        Assert.assertEquals(expectedResults, results);
+    }
+
+    @Test
+    public void evaluateAll1() throws Exception {
+        //given
+        List<String> statements = generateStatements(5_000);
+        List<String> expectedResults = evaluateSequentially(statements);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            //run
+            List<String> results = calc.evaluateAll(statements, executor);
+
+            //assert
+            Assert.assertEquals(expectedResults, results);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void evaluateAll2() {
+        //given
+        List<String> statements = generateStatements(BulkEvaluator.BATCH_SIZE * 20 + 7);
+        List<String> expectedResults = evaluateSequentially(statements);
+        List<String> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            //run
+            long evaluated = calc.evaluateAll(statements.iterator(), results::add, executor);
+
+            //assert
+            Assert.assertEquals(statements.size(), evaluated);
+            Assert.assertEquals(expectedResults, results);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void evaluateAll3() {
+        //given
+        List<String> statements = generateStatements(BulkEvaluator.BATCH_SIZE * 50);
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        int maxBatchesInFlight = Runtime.getRuntime().availableProcessors() * 2;
+
+        //run
+        calc.evaluateAll(new CountingIterator(statements, read), result -> {
+            consumed.incrementAndGet();
+            maxAhead.set(Math.max(maxAhead.get(), read.get() - consumed.get()));
+        }, Runnable::run);
+
+        //assert
+        Assert.assertEquals(statements.size(), consumed.get());
+        Assert.assertTrue("Too many statements were read ahead: " + maxAhead.get(),
+                maxAhead.get() <= (maxBatchesInFlight + 1) * BulkEvaluator.BATCH_SIZE);
+    }
+
+    @Test
+    public void evaluateAll4() {
+        //given
+        List<String> statements = Collections.emptyList();
+
+        //run
+        List<String> results = calc.evaluateAll(statements);
+
+        //assert
+        Assert.assertTrue(results.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateAll5() {
+        //given
+        List<String> statements = null;
+
+        //run
+        calc.evaluateAll(statements);
+
+        //assert: exception
+    }
+
+    /**
+     * Statements of a linked list are not accessed by index.
+     */
+    @Test(timeout = 10_000)
+    public void evaluateAll6() {
+        //given
+        List<String> statements = new LinkedList<>(generateStatements(200_000));
+        List<String> expectedResults = evaluateSequentially(statements);
+
+        //run
+        List<String> results = calc.evaluateAll(statements);
+
+        //assert
+        Assert.assertEquals(expectedResults, results);
+    }
+
+    private List<String> evaluateSequentially(List<String> statements) {
+        List<String> results = new ArrayList<>();
+        for (String statement : statements) {
+            results.add(calc.evaluate(statement));
+        }
+        return results;
+    }
+
+    private static List<String> generateStatements(int count) {
+        List<String> statements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            statements.add(i % 13 == 0 ? i + "++1" : "(" + i + " + 0.5) / " + (i % 5));
+        }
+        return statements;
+    }
+
+    private static final class CountingIterator implements Iterator<String> {
+        private final Iterator<String> iterator;
+        private final AtomicInteger read;
+
+        CountingIterator(List<String> statements, AtomicInteger read) {
+            this.iterator = statements.iterator();
+            this.read = read;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public String next() {
+            read.incrementAndGet();
+            return iterator.next();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class BytecodeGeneratorTest {
+
+    private Calculator calc = new Calculator();
+
+    @Test
+    public void withJitThreshold() {
+        //given
+        CompiledExpression expression = calc.compile("(a + 38) * rate - b / 2").withJitThreshold(3);
+
+        //run
+        double first = expression.calculate(1, 4, 5);
+        double second = expression.calculate(1, 4, 5);
+        boolean translatedBeforeThreshold = expression.isTranslated();
+        double third = expression.calculate(1, 4, 5);
+        double fourth = expression.calculate(1, 4, 5);
+
+        //assert
+        Assert.assertFalse(translatedBeforeThreshold);
+        Assert.assertTrue(expression.isTranslated());
+        Assert.assertEquals(153.5, first, 0);
+        Assert.assertEquals(first, second, 0);
+        Assert.assertEquals(first, third, 0);
+        Assert.assertEquals(first, fourth, 0);
+    }
+
+    @Test
+    public void withJitThreshold1() {
+        //given
+        CompiledExpression expression = calc.compile("x / (y - 1) + 0 * 1 + 2.5");
+        CompiledExpression translated = expression.withJitThreshold(1);
+
+        //run
+        translated.calculate(1, 2);
+
+        //assert
+        Assert.assertTrue(translated.isTranslated());
+        Assert.assertFalse(expression.isTranslated());
+        Assert.assertEquals(expression.calculate(1, 2), translated.calculate(1, 2), 0);
+        Assert.assertNull(translated.evaluate(1, 1));
+        Assert.assertEquals(expression.evaluate(7, 3), translated.evaluate(7, 3));
+    }
+
+    @Test
+    public void withJitThreshold2() {
+        //given
+        Random random = new Random(7);
+
+        for (int n = 0; n < 200; n++) {
+            String input = generateStatement(random, 5);
+            CompiledExpression expression = calc.compile(input);
+            CompiledExpression translated = expression.withJitThreshold(1);
+            double[] values = {random.nextInt(20) - 10, random.nextDouble() * 100, random.nextInt(5)};
+
+            //run
+            translated.calculate(values);
+
+            //assert
+            Assert.assertTrue(input, translated.isTranslated());
+            Assert.assertEquals(input, expression.calculate(values), translated.calculate(values), 0);
+        }
+    }
+
+    @Test
+    public void withJitThreshold3() {
+        //given
+        StringBuilder input = new StringBuilder("a");
+        for (int i = 0; i < BytecodeGenerator.MAX_INSTRUCTIONS; i++) {
+            input.append("+1");
+        }
+        CompiledExpression expression = calc.compile(input.toString()).withJitThreshold(1);
+
+        //run
+        double result = expression.calculate(1);
+
+        //assert
+        Assert.assertFalse(expression.isTranslated());
+        Assert.assertEquals(BytecodeGenerator.MAX_INSTRUCTIONS + 1, result, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withJitThreshold4() {
+        //given
+        CompiledExpression expression = calc.compile("1+2");
+
+        //run
+        expression.withJitThreshold(0);
+
+        //assert: exception
+    }
+
+    /**
+     * Indices of variables beyond the range of a signed short are loaded from the constant pool.
+     */
+    @Test
+    public void withJitThreshold5() {
+        //given
+        String[] variables = new String[70_000];
+        double[] values = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = "v" + i;
+            values[i] = i;
+        }
+        CompiledExpression expression = calc.compile("v127 + v128 + v32767 * 2 + v32768 + v40000 / 2 + v69999",
+                variables);
+        CompiledExpression translated = expression.withJitThreshold(1);
+
+        //run
+        translated.calculate(values);
+
+        //assert
+        Assert.assertTrue(translated.isTranslated());
+        Assert.assertEquals(127 + 128 + 32767 * 2 + 32768 + 20000 + 69999, expression.calculate(values), 0);
+        Assert.assertEquals(expression.calculate(values), translated.calculate(values), 0);
+    }
+
+    private static String generateStatement(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    return "a";
+                case 1:
+                    return "b";
+                case 2:
+                    return "c";
+                default:
+                    return String.valueOf(random.nextInt(1000) / 10.0);
+            }
+        }
+        switch (random.nextInt(8)) {
+            case 0:
+            case 1:
+                return (random.nextBoolean() ? "min(" : "max(") + generateStatement(random, depth - 1) + ", "
+                        + generateStatement(random, depth - 1) + ")";
+            case 2:
+                return (random.nextBoolean() ? "sqrt(" : "abs(") + generateStatement(random, depth - 1) + ")";
+            case 3:
+                return "(-" + generateStatement(random, depth - 1) + ")";
+            default:
+                String operation = generateStatement(random, depth - 1) + "+-*/%^".charAt(random.nextInt(6))
+                        + generateStatement(random, depth - 1);
+                return random.nextBoolean() ? "(" + operation + ")" : operation;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+public class CalculatorConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 20_000;
+
+    private static final String[] STATEMENTS = {
+            "2+3",
+            "10/(2-7+3)*4",
+            "22/4*2.159",
+            "(1+38)*4.5-1/2.",
+            "((((1+2)*3)-4)/5)",
+            "- 12)1//(",
+            "(12*(5-1)",
+            "5++41-6",
+            "1+2)",
+            "10/(5-5)",
+            "22/4*2,159"
+    };
+
+    private Calculator calc = new Calculator();
+
+    @Test
+    public void evaluateConcurrently() throws Exception {
+        //given
+        String[] expectedResults = new String[STATEMENTS.length];
+        for (int i = 0; i < STATEMENTS.length; i++) {
+            expectedResults[i] = calc.evaluate(STATEMENTS[i]);
+        }
+
+        //run
+        List<String> mismatches = runConcurrently(calc::evaluate, expectedResults);
+
+        //assert
+        Assert.assertEquals("Results differ from sequential evaluation", new ArrayList<String>(), mismatches);
+    }
+
+    @Test
+    public void evaluateConcurrentlyWithCache() throws Exception {
+        //given
+        Calculator cachingCalc = new Calculator(new ResultCache(4));
+        String[] expectedResults = new String[STATEMENTS.length];
+        for (int i = 0; i < STATEMENTS.length; i++) {
+            expectedResults[i] = calc.evaluate(STATEMENTS[i]);
+        }
+
+        //run
+        List<String> mismatches = runConcurrently(cachingCalc::evaluate, expectedResults);
+
+        //assert
+        Assert.assertEquals("Results differ from sequential evaluation", new ArrayList<String>(), mismatches);
+    }
+
+    /**
+     * Runs function over all statements from several threads started at the same moment.
+     *
+     * @param function        to be called concurrently.
+     * @param expectedResults results of sequential calls, in order of statements.
+     * @return descriptions of all results which differ from the expected ones.
+     */
+    private static List<String> runConcurrently(Function<String, String> function, String[] expectedResults)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                Callable<List<String>> task = () -> {
+                    List<String> mismatches = new ArrayList<>();
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        int index = (i + offset) % STATEMENTS.length;
+                        String result = function.apply(STATEMENTS[index]);
+                        String expected = expectedResults[index];
+                        if (expected == null ? result != null : !expected.equals(result)) {
+                            mismatches.add(STATEMENTS[index] + " -> " + result);
+                        }
+                    }
+                    return mismatches;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            List<String> mismatches = new ArrayList<>();
+            for (Future<List<String>> future : futures) {
+                mismatches.addAll(future.get());
+            }
+            return mismatches;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.tsystems.javaschool.tasks.calculator;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public class CalculatorTest {
 
     private Calculator calc = new Calculator();
@@ -267,4 +270,387 @@ public class CalculatorTest {
         Assert.assertEquals(expectedResult, result);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void evaluate20() {
+        //given
+        String input = " ( 1 + 38 ) * 4.5 - 1 / 2. ";
+        String expectedResult = "175";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate21() {
+        //given
+        String input = "((2.5))";
+        String expectedResult = "2.5";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate22() {
+        //given
+        String input = "1432+.303.";
+        String expectedResult = null;
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate23() {
+        //given
+        String input = "(3)2";
+        String expectedResult = null;
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate24() {
+        //given
+        String input = "0.1+0.2";
+        String expectedResult = "0.3";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate25() {
+        //given
+        String input = "123456789012345678.9/1000000000000000000";
+        String expectedResult = "0.1235";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate26() {
+        //given
+        String input = "2-3-4";
+        String expectedResult = "-5";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate27() {
+        //given
+        String input = "100/10/5";
+        String expectedResult = "2";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate28() {
+        //given
+        String input = "-2^2 + 2^3^2";
+        String expectedResult = "508";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate29() {
+        //given
+        String input = "-(1 + 2) * 4";
+        String expectedResult = "-12";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate30() {
+        //given
+        String input = "7.5 % 2 + 2 * (-3)";
+        String expectedResult = "-4.5";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate31() {
+        //given
+        String input = "min(3, max(1, 2)) * sqrt(16) + abs(0 - 2.5)";
+        String expectedResult = "10.5";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate32() {
+        //given
+        String input = "2*-3";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate33() {
+        //given
+        String input = "min(1)";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate34() {
+        //given
+        String input = "foo(1)";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate35() {
+        //given
+        String input = "1, 2";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate36() {
+        //given
+        String input = "sqrt(0 - 1)";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate37() {
+        //given
+        String input = "(1, 2)";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate38() {
+        //given
+        String input = "--5";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate39() {
+        //given
+        String input = "max(1, 2,)";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void tryEvaluate() {
+        //given
+        String input = "(1 + 38) * 4.5 - 1 / 2.";
+
+        //run
+        EvaluationResult result = calc.tryEvaluate(input);
+
+        //assert
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals("175", result.getValue());
+        Assert.assertNull(result.getError());
+        Assert.assertEquals(-1, result.getPosition());
+    }
+
+    @Test
+    public void tryEvaluate1() {
+        //given
+        String[] inputs = {"2 # 3", "(1 + 2", "1 + 2)", "1 + * 2", "1 +", "foo(1)", "min(1)", "1 + x", "10 / (5 - 5)",
+                "sqrt(0 - 1)", "10 ^ 400"};
+        EvaluationError[] expectedErrors = {
+                EvaluationError.INVALID_SYMBOL, EvaluationError.UNBALANCED_BRACKETS,
+                EvaluationError.UNBALANCED_BRACKETS, EvaluationError.SYNTAX_ERROR, EvaluationError.SYNTAX_ERROR,
+                EvaluationError.UNKNOWN_NAME, EvaluationError.WRONG_ARGUMENT_COUNT, EvaluationError.UNKNOWN_NAME,
+                EvaluationError.DIVISION_BY_ZERO, EvaluationError.UNDEFINED, EvaluationError.OVERFLOW
+        };
+        int[] expectedPositions = {2, 6, 5, 4, 3, 0, 5, 4, -1, -1, -1};
+
+        for (int i = 0; i < inputs.length; i++) {
+            //run
+            EvaluationResult result = calc.tryEvaluate(inputs[i]);
+
+            //assert
+            Assert.assertFalse(inputs[i], result.isSuccess());
+            Assert.assertNull(inputs[i], result.getValue());
+            Assert.assertEquals(inputs[i], expectedErrors[i], result.getError());
+            Assert.assertEquals(inputs[i], expectedPositions[i], result.getPosition());
+            Assert.assertNull(inputs[i], calc.evaluate(inputs[i]));
+        }
+    }
+
+    @Test
+    public void tryEvaluate2() {
+        //given
+        Calculator cachingCalculator = new Calculator(new ResultCache(16));
+        cachingCalculator.evaluate("1 + 2)");
+
+        //run
+        EvaluationResult cached = cachingCalculator.tryEvaluate("1 + 2)");
+        EvaluationResult decimal = new Calculator(null, java.math.MathContext.DECIMAL64).tryEvaluate("0.1 + 0.2");
+
+        //assert
+        Assert.assertEquals(EvaluationError.UNBALANCED_BRACKETS, cached.getError());
+        Assert.assertEquals(5, cached.getPosition());
+        Assert.assertEquals("0.3", decimal.getValue());
+    }
+
+    @Test
+    public void evaluate40() {
+        //given
+        StringBuilder input = new StringBuilder("(1 + 38) * 4.5 - 1 / 2.");
+        Calculator cachingCalculator = new Calculator(new ResultCache(16));
+
+        //run
+        String result = calc.evaluate(input);
+        String cachedResult = cachingCalculator.evaluate(input);
+
+        //assert
+        Assert.assertEquals("175", result);
+        Assert.assertEquals("175", cachedResult);
+    }
+
+    @Test
+    public void evaluate41() {
+        //given
+        byte[] bytes = "2+3\n(1 + 38) * 4.5 - 1 / 2.\n".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        ByteBuffer readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+
+        //run
+        String arrayResult = calc.evaluate(bytes, 4, bytes.length - 5);
+        String heapResult = calc.evaluate(ByteBuffer.wrap(bytes), 0, 3);
+        String directResult = calc.evaluate(direct, 4, bytes.length - 5);
+        String readOnlyResult = calc.evaluate(readOnly, 0, 3);
+
+        //assert
+        Assert.assertEquals("175", arrayResult);
+        Assert.assertEquals("5", heapResult);
+        Assert.assertEquals("175", directResult);
+        Assert.assertEquals("5", readOnlyResult);
+        Assert.assertEquals(bytes.length, direct.position());
+    }
+
+    @Test
+    public void evaluate42() {
+        //given
+        byte[] bytes = {'1', '+', (byte) 0xB2};
+
+        //run
+        String result = calc.evaluate(bytes, 0, bytes.length);
+        String nullResult = calc.evaluate((byte[]) null, 0, 0);
+
+        //assert
+        Assert.assertNull(result);
+        Assert.assertNull(nullResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluate43() {
+        //given
+        ByteBuffer buffer = ByteBuffer.wrap("1+2".getBytes(StandardCharsets.US_ASCII), 0, 2);
+
+        //run
+        calc.evaluate(buffer, 0, 3);
+
+        //assert: exception
+    }
+
+    @Test
+    public void evaluate44() {
+        //given
+        String input = "100000 * 100000 + 1 / 2000";
+        String expectedResult = "10000000000.0005";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+}
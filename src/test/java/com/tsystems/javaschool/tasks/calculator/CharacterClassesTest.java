@@ -0,0 +1,31 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+public class CharacterClassesTest {
+
+    @Test
+    public void classesOf() {
+        //given
+        Pattern whitespace = Pattern.compile("\\s");
+        Pattern digit = Pattern.compile("\\d");
+        Pattern identifierPart = Pattern.compile("[A-Za-z0-9_]");
+
+        for (char symbol = 0; symbol < Character.MAX_VALUE; symbol++) {
+            String text = String.valueOf(symbol);
+
+            //run
+            boolean isWhitespace = CharacterClasses.isWhitespace(symbol);
+            boolean isDigit = CharacterClasses.isDigit(symbol);
+            boolean isIdentifierPart = CharacterClasses.isIdentifierPart(symbol);
+
+            //assert
+            Assert.assertEquals(text, whitespace.matcher(text).matches(), isWhitespace);
+            Assert.assertEquals(text, digit.matcher(text).matches(), isDigit);
+            Assert.assertEquals(text, identifierPart.matcher(text).matches(), isIdentifierPart);
+        }
+    }
+}
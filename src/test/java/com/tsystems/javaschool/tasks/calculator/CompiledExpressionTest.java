@@ -0,0 +1,308 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class CompiledExpressionTest {
+
+    private Calculator calc = new Calculator();
+
+    @Test
+    public void compile() {
+        //given
+        String input = "10/(2-7+3)*4";
+        String expectedResult = "-20";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, expression.evaluate());
+        Assert.assertEquals(expectedResult, expression.evaluate());
+    }
+
+    @Test
+    public void compile1() {
+        //given
+        String input = "22/4*2.159";
+        double expectedResult = 22.0 / 4 * 2.159;
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, expression.calculate(), 0);
+        Assert.assertEquals("11.8745", expression.evaluate());
+    }
+
+    @Test
+    public void compile2() {
+        //given
+        String input = "10/(5-5)";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertNotNull(expression);
+        Assert.assertNull(expression.evaluate());
+    }
+
+    @Test
+    public void compile3() {
+        //given
+        String input = "- 12)1//(";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertNull(expression);
+    }
+
+    @Test
+    public void compile4() {
+        //given
+        String input = null;
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertNull(expression);
+    }
+
+    @Test
+    public void compile5() {
+        //given
+        String[] inputs = {"2+3", "4-6", "2*3", "12/3", "2+3*4", "10/2-7+3*4", "22/3*3.0480",
+                "(1+38)*4.5-1/2.", "((((1+2)*3)-4)/5)", "1-2-3-4", "1*2+3*4-5/6*7+8", "(((((((7)))))))"};
+
+        for (String input : inputs) {
+            //run
+            CompiledExpression expression = calc.compile(input);
+
+            //assert
+            Assert.assertEquals(input, calc.evaluate(input), expression.evaluate());
+        }
+    }
+
+    @Test
+    public void compile6() {
+        //given
+        String input = "(a + 38) * rate - b / 2";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertEquals(Arrays.asList("a", "rate", "b"), expression.getVariables());
+        Assert.assertEquals(1, expression.indexOf("rate"));
+        Assert.assertEquals(-1, expression.indexOf("c"));
+        Assert.assertEquals(calc.evaluate("(1 + 38) * 4 - 5 / 2"), expression.evaluate(1, 4, 5));
+        Assert.assertEquals(calc.evaluate("(2 + 38) * 4.5 - 1 / 2"), expression.evaluate(2, 4.5, 1));
+    }
+
+    @Test
+    public void compile7() {
+        //given
+        String input = "x_1 * x_1 + y / x_1";
+
+        //run
+        CompiledExpression expression = calc.compile(input, "y", "x_1");
+
+        //assert
+        Assert.assertEquals(Arrays.asList("y", "x_1"), expression.getVariables());
+        Assert.assertEquals(3 * 3 + 6.0 / 3, expression.calculate(6, 3), 0);
+        Assert.assertNull(expression.evaluate(6, 0));
+    }
+
+    @Test
+    public void compile8() {
+        //given
+        String input = "a + b";
+
+        //run
+        CompiledExpression expression = calc.compile(input, "a");
+
+        //assert
+        Assert.assertNull(expression);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile9() {
+        //given
+        String input = "a + b";
+
+        //run
+        calc.compile(input, "a", "b", "a");
+
+        //assert: exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile10() {
+        //given
+        CompiledExpression expression = calc.compile("a + b");
+
+        //run
+        expression.calculate(1);
+
+        //assert: exception
+    }
+
+    @Test
+    public void compile11() {
+        //given
+        String[] inputs = {"a b", "2a", "a(1)", "1 + a.5", "a +", "ab c"};
+
+        for (String input : inputs) {
+            //run
+            CompiledExpression expression = calc.compile(input);
+
+            //assert
+            Assert.assertNull(input, expression);
+        }
+    }
+
+    @Test
+    public void compile12() {
+        //given
+        String input = "(2*3.5+1) * a";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertEquals(3, expression.getProgramSize());
+        Assert.assertEquals("16", expression.evaluate(2));
+    }
+
+    @Test
+    public void compile13() {
+        //given
+        String input = "a*1 + 0 + 1*b - 0/1 + 0*2";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertEquals(3, expression.getProgramSize());
+        Assert.assertEquals("7.5", expression.evaluate(2.5, 5));
+    }
+
+    @Test
+    public void compile14() {
+        //given
+        String input = "a / (5-5) + 1";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+        CompiledExpression valid = calc.compile("a / b");
+
+        //assert
+        Assert.assertTrue(expression.hasDivisionByZero());
+        Assert.assertNull(expression.evaluate(1));
+        Assert.assertFalse(valid.hasDivisionByZero());
+        Assert.assertNull(valid.evaluate(1, 0));
+    }
+
+    @Test
+    public void compile15() {
+        //given
+        Random random = new Random(12);
+
+        for (int n = 0; n < 2000; n++) {
+            String input = generateStatement(random, 4);
+            double[] values = {random.nextInt(4), random.nextInt(4)};
+            String substituted = input.replace("a", Integer.toString((int) values[0]))
+                    .replace("b", Integer.toString((int) values[1]));
+
+            //run
+            CompiledExpression expression = calc.compile(input, "a", "b");
+
+            //assert
+            Assert.assertEquals(input, calc.evaluate(substituted), expression.evaluate(values));
+        }
+    }
+
+    @Test
+    public void compile16() {
+        //given
+        String input = "sqrt(16) * -a";
+        String validInput = "max(a, b) ^ 2 % 7 - min(-a, abs(b))";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+        CompiledExpression valid = calc.compile(validInput);
+
+        //assert
+        Assert.assertNull(expression);
+        Assert.assertEquals("5", valid.evaluate(3, -4));
+        Assert.assertEquals(Arrays.asList("a", "b"), valid.getVariables());
+    }
+
+    @Test
+    public void compile17() {
+        //given
+        String input = "sqrt(16) * (-a) + min(2, 3) ^ 2";
+
+        //run
+        CompiledExpression expression = calc.compile(input);
+
+        //assert
+        Assert.assertEquals(6, expression.getProgramSize());
+        Assert.assertEquals("-6", expression.evaluate(2.5));
+    }
+
+    @Test
+    public void instruction() {
+        //given
+        int argument = CompiledExpression.MAX_ARGUMENT - 1;
+
+        //run
+        int instruction = CompiledExpression.instruction(CompiledExpression.PUSH_VARIABLE, argument);
+
+        //assert
+        Assert.assertEquals(CompiledExpression.PUSH_VARIABLE, instruction & CompiledExpression.OPCODE_MASK);
+        Assert.assertEquals(argument, instruction >>> CompiledExpression.OPCODE_BITS);
+    }
+
+    /**
+     * Index of the 2^24-th constant or variable does not fit into instruction, such statements are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void instruction1() {
+        //given
+        int argument = CompiledExpression.MAX_ARGUMENT;
+
+        //run
+        CompiledExpression.instruction(CompiledExpression.PUSH_CONSTANT, argument);
+
+        //assert: exception
+    }
+
+    private static String generateStatement(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            String[] operands = {"a", "b", "0", "1", "2", "0.5"};
+            return operands[random.nextInt(operands.length)];
+        }
+        char operator = "+-*/".charAt(random.nextInt(4));
+        return "(" + generateStatement(random, depth - 1) + operator + generateStatement(random, depth - 1) + ")";
+    }
+
+    @Test
+    public void evaluate() {
+        //given
+        String input = "a + 1";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+}
@@ -0,0 +1,221 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+public class DecimalEvaluatorTest {
+
+    private final Calculator calc = new Calculator(null, MathContext.DECIMAL128);
+
+    @Test
+    public void evaluate() {
+        //given
+        String input = "0.1 + 0.2";
+        String expectedResult = "0.3";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate1() {
+        //given
+        String input = "(1 + 38) * 4.5 - 1 / 2.";
+        String expectedResult = "175";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate2() {
+        //given
+        String input = "99999999999 * 99999999999";
+        String expectedResult = "9999999999800000000001";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate3() {
+        //given
+        String input = "10/(5-5)";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate4() {
+        //given
+        String input = "1 / 3";
+        String expectedResult = "0.3333";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate5() {
+        //given
+        Calculator unlimited = new Calculator(null, MathContext.UNLIMITED);
+
+        //run
+        String nonTerminating = unlimited.evaluate("1 / 3");
+        String terminating = unlimited.evaluate("1 / 8");
+
+        //assert
+        Assert.assertNull(nonTerminating);
+        Assert.assertEquals("0.125", terminating);
+    }
+
+    @Test
+    public void evaluate6() {
+        //given
+        Calculator halfEven = new Calculator(null, new MathContext(34, RoundingMode.HALF_EVEN));
+        Calculator halfUp = new Calculator(null, new MathContext(34, RoundingMode.HALF_UP));
+        Calculator floor = new Calculator(null, new MathContext(34, RoundingMode.FLOOR));
+
+        //run
+        String halfEvenResult = halfEven.evaluate("0.00025 + 0.00000");
+        String halfUpResult = halfUp.evaluate("0.00025 + 0.00000");
+        String floorResult = floor.evaluate("0 - 2 / 3");
+
+        //assert
+        Assert.assertEquals("0.0002", halfEvenResult);
+        Assert.assertEquals("0.0003", halfUpResult);
+        Assert.assertEquals("-0.6667", floorResult);
+    }
+
+    @Test
+    public void evaluate7() {
+        //given
+        Calculator precision = new Calculator(null, new MathContext(3, RoundingMode.HALF_UP));
+
+        //run
+        String division = precision.evaluate("2 / 3");
+        String sum = precision.evaluate("1234 + 1");
+
+        //assert
+        Assert.assertEquals("0.667", division);
+        Assert.assertEquals("1240", sum);
+    }
+
+    @Test
+    public void evaluate8() {
+        //given
+        String input = "5++41-6";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void evaluate9() {
+        //given
+        String input = "0.000012345678901234567890 * 100000";
+        String expectedResult = "1.2346";
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void evaluate10() {
+        //given
+        Calculator unlimited = new Calculator(null, MathContext.UNLIMITED);
+
+        //run
+        String negative = calc.evaluate("-0.1 - 0.2 + abs(-0.3)");
+        String functions = calc.evaluate("max(0.1, 0.2) * min(3, 2.5) % 0.4");
+        String power = calc.evaluate("1.1 ^ 2 + 2 ^ (-2)");
+        String root = calc.evaluate("sqrt(2)");
+        String exactRoot = unlimited.evaluate("sqrt(2.25)");
+        String inexactRoot = unlimited.evaluate("sqrt(2)");
+        String fractionalPower = calc.evaluate("2 ^ 0.5");
+
+        //assert
+        Assert.assertEquals("0", negative);
+        Assert.assertEquals("0.1", functions);
+        Assert.assertEquals("1.46", power);
+        Assert.assertEquals("1.4142", root);
+        Assert.assertEquals("1.5", exactRoot);
+        Assert.assertNull(inexactRoot);
+        Assert.assertNull(fractionalPower);
+    }
+
+    @Test
+    public void evaluateWithBigDecimal() {
+        //given
+        Random random = new Random(42);
+        MathContext[] contexts = {
+                MathContext.DECIMAL128, MathContext.DECIMAL64, MathContext.DECIMAL32, MathContext.UNLIMITED,
+                new MathContext(5, RoundingMode.HALF_EVEN), new MathContext(17, RoundingMode.CEILING),
+                new MathContext(12, RoundingMode.DOWN), new MathContext(8, RoundingMode.UNNECESSARY)
+        };
+        DecimalEvaluator evaluator = new DecimalEvaluator();
+
+        for (int i = 0; i < 20000; i++) {
+            String statement = randomStatement(random, 4);
+            MathContext mathContext = contexts[random.nextInt(contexts.length)];
+
+            //run
+            String fast = evaluator.evaluate(statement, mathContext);
+            String exact = evaluator.evaluateWithBigDecimal(statement, mathContext);
+
+            //assert
+            Assert.assertEquals(statement + " in " + mathContext, exact, fast);
+        }
+    }
+
+    private static String randomStatement(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            StringBuilder number = new StringBuilder();
+            number.append(random.nextInt(random.nextBoolean() ? 10 : 1000000));
+            if (random.nextBoolean()) {
+                number.append('.');
+                int fractionDigits = 1 + random.nextInt(6);
+                for (int i = 0; i < fractionDigits; i++) {
+                    number.append(random.nextInt(10));
+                }
+            }
+            return number.toString();
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+                return (random.nextBoolean() ? "min(" : "max(") + randomStatement(random, depth - 1) + ", "
+                        + randomStatement(random, depth - 1) + ")";
+            case 1:
+                return (random.nextBoolean() ? "(-" : "abs(") + randomStatement(random, depth - 1) + ")";
+            default:
+                char operator = "+-*/%".charAt(random.nextInt(5));
+                return "(" + randomStatement(random, depth - 1) + operator + randomStatement(random, depth - 1) + ")";
+        }
+    }
+}
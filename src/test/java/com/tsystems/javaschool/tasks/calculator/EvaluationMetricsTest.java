@@ -0,0 +1,82 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.MathContext;
+import java.util.Arrays;
+
+public class EvaluationMetricsTest {
+
+    @Test
+    public void statementEvaluated() {
+        //given
+        EvaluationMetrics metrics = new EvaluationMetrics();
+        Calculator calc = new Calculator(null, null, metrics);
+
+        //run
+        String result = calc.evaluate("(1 + 38) * 4.5 - 1 / 2.");
+        calc.evaluate("2 # 3");
+        calc.evaluate("((1 + 2)");
+        calc.evaluate("1 + 2)");
+        calc.evaluate("1 + * 2");
+        calc.evaluate("foo(1)");
+        calc.evaluate("min(1)");
+        calc.evaluate("10 / (5 - 5)");
+        calc.evaluate("10 ^ 400");
+        calc.evaluate("sqrt(0 - 1)");
+
+        //assert
+        Assert.assertEquals("175", result);
+        Assert.assertEquals(10, metrics.getEvaluationCount());
+        for (EvaluationError error : EvaluationError.values()) {
+            long expectedCount = error == EvaluationError.UNBALANCED_BRACKETS ? 2 : 1;
+            Assert.assertEquals(error.name(), expectedCount, metrics.getFailureCount(error));
+        }
+        Assert.assertEquals(10, metrics.getLatencies(EvaluationListener.Phase.EVALUATION).getCount());
+        Assert.assertEquals(4, metrics.getLatencies(EvaluationListener.Phase.FORMATTING).getCount());
+        Assert.assertEquals(0, metrics.getLatencies(EvaluationListener.Phase.CACHE_LOOKUP).getCount());
+    }
+
+    @Test
+    public void statementEvaluated1() {
+        //given
+        EvaluationMetrics metrics = new EvaluationMetrics();
+        Calculator calc = new Calculator(new ResultCache(16), MathContext.DECIMAL64, metrics);
+
+        //run
+        calc.evaluate("1 / 0");
+        calc.evaluate("1/0");
+        calc.evaluate("2 ^ 0.5");
+        calc.evaluate("a + 1");
+
+        //assert
+        Assert.assertEquals(3, metrics.getEvaluationCount());
+        Assert.assertEquals(4, metrics.getLatencies(EvaluationListener.Phase.CACHE_LOOKUP).getCount());
+        Assert.assertEquals(3, metrics.getLatencies(EvaluationListener.Phase.EVALUATION).getCount());
+        Assert.assertEquals(1, metrics.getFailureCount(EvaluationError.DIVISION_BY_ZERO));
+        Assert.assertEquals(1, metrics.getFailureCount(EvaluationError.UNDEFINED));
+        Assert.assertEquals(1, metrics.getFailureCount(EvaluationError.UNKNOWN_NAME));
+    }
+
+    @Test
+    public void getLengths() {
+        //given
+        EvaluationMetrics metrics = new EvaluationMetrics();
+        Calculator calc = new Calculator(null, null, metrics);
+
+        //run
+        calc.evaluateAll(Arrays.asList("1", "1+2", "12+34", "1+2+3+4+5+6"));
+
+        //assert
+        EvaluationMetrics.Histogram lengths = metrics.getLengths();
+        Assert.assertEquals(4, lengths.getCount());
+        Assert.assertEquals(20, lengths.getSum());
+        Assert.assertEquals(1, lengths.getCount(1));
+        Assert.assertEquals(1, lengths.getCount(2));
+        Assert.assertEquals(1, lengths.getCount(3));
+        Assert.assertEquals(1, lengths.getCount(4));
+        Assert.assertEquals(3, lengths.getPercentile(50));
+        Assert.assertEquals(15, lengths.getPercentile(100));
+    }
+}
@@ -0,0 +1,212 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class ExpressionGraphTest {
+
+    private Calculator calc = new Calculator();
+
+    @Test
+    public void register() {
+        //given
+        ExpressionGraph graph = new ExpressionGraph();
+        graph.set("price", 10);
+        CompiledExpression gross = calc.compile("price * (1 + tax)");
+
+        //run
+        String before = graph.register(gross, null);
+        graph.set("tax", 0.2);
+
+        //assert
+        Assert.assertNull(before);
+        Assert.assertEquals("12", graph.getResult(gross));
+    }
+
+    @Test
+    public void set() {
+        //given
+        ExpressionGraph graph = new ExpressionGraph();
+        List<String> grossResults = new ArrayList<>();
+        List<String> netResults = new ArrayList<>();
+        CompiledExpression gross = calc.compile("price * quantity * (1 + tax)");
+        CompiledExpression net = calc.compile("price * quantity");
+        graph.register(gross, grossResults::add);
+        graph.register(net, netResults::add);
+
+        //run
+        graph.set("price", 2.5);
+        graph.set("quantity", 4);
+        graph.set("tax", 0.1);
+        graph.set("price", 5);
+
+        //assert
+        Assert.assertEquals(Arrays.asList("11", "22"), grossResults);
+        Assert.assertEquals(Arrays.asList("10", "20"), netResults);
+    }
+
+    @Test
+    public void set1() {
+        //given
+        ExpressionGraph graph = new ExpressionGraph();
+        List<String> results = new ArrayList<>();
+        graph.setAll(createValues(1, 2.5));
+        graph.register(calc.compile("a * 0 + b"), results::add);
+
+        //run
+        graph.set("a", 7);
+        graph.set("b", 2.5);
+        graph.set("c", 3);
+        graph.set("b", 2.50001);
+
+        //assert
+        Assert.assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void setAll() {
+        //given
+        ExpressionGraph graph = new ExpressionGraph();
+        List<String> results = new ArrayList<>();
+        graph.register(calc.compile("a / b + a * b"), results::add);
+
+        //run
+        graph.setAll(createValues(4, 2));
+        graph.setAll(createValues(2, 4));
+        graph.set("b", 0);
+
+        //assert
+        Assert.assertEquals(Arrays.asList("10", "8.5", null), results);
+    }
+
+    /**
+     * Rejected values change nothing, even if other values come first.
+     */
+    @Test
+    public void setAll1() {
+        //given
+        ExpressionGraph graph = new ExpressionGraph();
+        List<String> results = new ArrayList<>();
+        CompiledExpression expression = calc.compile("a + b");
+        graph.register(expression, results::add);
+        graph.setAll(createValues(1, 2));
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("a", 5.0);
+        values.put("b", null);
+
+        //run
+        try {
+            graph.setAll(values);
+            Assert.fail("Null value is accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        String rejectedResult = graph.getResult(expression);
+        graph.set("b", 3);
+
+        //assert
+        Assert.assertEquals("3", rejectedResult);
+        Assert.assertEquals(Arrays.asList("3", "4"), results);
+    }
+
+    /**
+     * Changes pending when a listener throws are not notified by later unrelated updates.
+     */
+    @Test
+    public void set3() {
+        //given
+        ExpressionGraph graph = new ExpressionGraph();
+        List<String> results = new ArrayList<>();
+        List<String> failedResults = new ArrayList<>();
+        graph.register(calc.compile("a * 2"), result -> {
+            if (failedResults.isEmpty()) {
+                failedResults.add(result);
+                throw new IllegalStateException(result);
+            }
+        });
+        graph.register(calc.compile("a + 1"), results::add);
+        try {
+            graph.set("a", 1);
+            Assert.fail("Exception of listener is not thrown");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        //run
+        graph.set("c", 1);
+        List<String> resultsAfterUnrelatedUpdate = new ArrayList<>(results);
+        graph.set("a", 2);
+
+        //assert
+        Assert.assertEquals(new ArrayList<String>(), resultsAfterUnrelatedUpdate);
+        Assert.assertEquals(Arrays.asList("3"), results);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void register1() {
+        //given
+        ExpressionGraph graph = new ExpressionGraph();
+        CompiledExpression expression = calc.compile("a + 1");
+        graph.register(expression, null);
+
+        //run
+        graph.register(expression, null);
+
+        //assert: exception
+    }
+
+    @Test
+    public void set2() {
+        //given
+        Random random = new Random(13);
+        ExpressionGraph graph = new ExpressionGraph();
+        String[] variables = {"a", "b", "c", "d"};
+        double[] values = new double[variables.length];
+        List<CompiledExpression> expressions = new ArrayList<>();
+        for (String variable : variables) {
+            graph.set(variable, 0);
+        }
+        for (int n = 0; n < 50; n++) {
+            CompiledExpression expression = calc.compile(generateStatement(random, 5), variables);
+            graph.register(expression, null);
+            expressions.add(expression);
+        }
+
+        for (int n = 0; n < 1000; n++) {
+            int variable = random.nextInt(variables.length);
+            values[variable] = random.nextInt(10);
+
+            //run
+            graph.set(variables[variable], values[variable]);
+
+            //assert
+            for (CompiledExpression expression : expressions) {
+                Assert.assertEquals(expression.evaluate(values), graph.getResult(expression));
+            }
+        }
+    }
+
+    private static Map<String, Double> createValues(double a, double b) {
+        Map<String, Double> values = new HashMap<>();
+        values.put("a", a);
+        values.put("b", b);
+        return values;
+    }
+
+    private static String generateStatement(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            String[] operands = {"a", "b", "c", "d", "1", "2.5"};
+            return operands[random.nextInt(operands.length)];
+        }
+        char operator = "+-*/".charAt(random.nextInt(4));
+        return "(" + generateStatement(random, depth - 1) + operator + generateStatement(random, depth - 1) + ")";
+    }
+}
@@ -0,0 +1,114 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.MathContext;
+
+public class LargeStatementTest {
+    private static final int LENGTH = 10_000_000;
+    private static final long TIMEOUT = 30_000;
+
+    private final Calculator calc = new Calculator();
+
+    @Test(timeout = TIMEOUT)
+    public void evaluate() {
+        //given
+        String input = repeat("(", LENGTH / 2 - 1) + "1" + repeat(")", LENGTH / 2 - 1);
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals("1", result);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void evaluate1() {
+        //given
+        String input = "1" + repeat(" + 1", LENGTH / 4);
+
+        //run
+        String result = calc.evaluate(input);
+
+        //assert
+        Assert.assertEquals(String.valueOf(LENGTH / 4 + 1), result);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void evaluate2() {
+        //given
+        String power = "2" + repeat("^1", LENGTH / 2);
+        String negations = repeat("-(", LENGTH / 4) + "1" + repeat(")", LENGTH / 4);
+        String functions = repeat("abs(", LENGTH / 8) + "1" + repeat(")", LENGTH / 8);
+        String whitespace = repeat(" ", LENGTH) + "1";
+
+        //run
+        String powerResult = calc.evaluate(power);
+        String negationsResult = calc.evaluate(negations);
+        String functionsResult = calc.evaluate(functions);
+        String whitespaceResult = calc.evaluate(whitespace);
+
+        //assert
+        Assert.assertEquals("2", powerResult);
+        Assert.assertEquals("1", negationsResult);
+        Assert.assertEquals("1", functionsResult);
+        Assert.assertEquals("1", whitespaceResult);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void tryEvaluate() {
+        //given
+        String input = repeat("(", LENGTH / 2) + "1" + repeat(")", LENGTH / 2 - 1);
+
+        //run
+        EvaluationResult result = calc.tryEvaluate(input);
+
+        //assert
+        Assert.assertEquals(EvaluationError.UNBALANCED_BRACKETS, result.getError());
+        Assert.assertEquals(input.length(), result.getPosition());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void evaluate3() {
+        //given
+        Calculator decimal = new Calculator(null, MathContext.DECIMAL64);
+        Calculator caching = new Calculator(new ResultCache(1));
+        String input = repeat("(", LENGTH / 4) + "0.1 + 0.2" + repeat(")", LENGTH / 4) + repeat(" * 1", LENGTH / 8);
+
+        //run
+        String decimalResult = decimal.evaluate(input);
+        String cachedResult = caching.evaluate(input);
+        CompiledExpression compiled = calc.compile(input);
+
+        //assert
+        Assert.assertEquals("0.3", decimalResult);
+        Assert.assertEquals("0.3", cachedResult);
+        Assert.assertEquals("0.3", compiled.evaluate());
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void evaluateAll() throws IOException {
+        //given
+        String input = "1 + 1\n" + repeat("(", LENGTH / 2 - 1) + "2" + repeat(")", LENGTH / 2 - 1) + "\n3";
+        StringWriter output = new StringWriter();
+
+        //run
+        long count = calc.evaluateAll(new StringReader(input), output);
+
+        //assert
+        Assert.assertEquals(3, count);
+        Assert.assertEquals("2\n2\n3\n", output.toString());
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder result = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            result.append(text);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+    @Test
+    public void evaluate() {
+        //given
+        ResultCache cache = new ResultCache(100);
+        Calculator calc = new Calculator(cache);
+
+        //run
+        String first = calc.evaluate("2+3*4");
+        String second = calc.evaluate("2 + 3 * 4");
+
+        //assert
+        Assert.assertEquals("14", first);
+        Assert.assertEquals("14", second);
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evaluate1() {
+        //given
+        ResultCache cache = new ResultCache(100);
+        Calculator calc = new Calculator(cache);
+
+        //run
+        String first = calc.evaluate("5++41-6");
+        String second = calc.evaluate("5++41-6");
+        String third = calc.evaluate("10/(5-5)");
+
+        //assert
+        Assert.assertNull(first);
+        Assert.assertNull(second);
+        Assert.assertNull(third);
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void evaluate2() {
+        //given
+        ResultCache cache = new ResultCache(3);
+        Calculator calc = new Calculator(cache);
+
+        //run
+        calc.evaluate("1+1");
+        calc.evaluate("1+2");
+        calc.evaluate("1+3");
+        calc.evaluate("1+1");
+        calc.evaluate("1+4");
+        calc.evaluate("1+1");
+        calc.evaluate("1+2");
+
+        //assert
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(2, cache.getEvictionCount());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void evaluate3() {
+        //given
+        ResultCache cache = new ResultCache(1000);
+        Calculator calc = new Calculator(cache);
+
+        //run
+        for (int i = 0; i < 10_000; i++) {
+            calc.evaluate(i + "*2");
+        }
+
+        //assert
+        Assert.assertEquals(1000, cache.size());
+        Assert.assertEquals(9000, cache.getEvictionCount());
+        Assert.assertEquals("20", calc.evaluate("10*2"));
+    }
+
+    @Test
+    public void normalize() {
+        //given
+        String input = " (1 +\t38)\n* 4 ";
+        String expectedResult = "(1+38)*4";
+
+        //run
+        String result = ResultCache.normalize(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void normalize1() {
+        //given
+        String input = "sq rt(4) + min (a1 b, 2 0)";
+        String expectedResult = "sq rt(4)+min(a1 b,20)";
+
+        //run
+        String result = ResultCache.normalize(input);
+
+        //assert
+        Assert.assertEquals(expectedResult, result);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create() {
+        //run
+        new ResultCache(0);
+
+        //assert: exception
+    }
+}
@@ -0,0 +1,99 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class ResultFormatterTest {
+
+    @Test
+    public void toStringOfValue() {
+        //given
+        double[] values = {0, -0.0, 5, -151, 1e10, -0x1p62, 175.5, 102.12356, 0.0005, 2.00001, -0.00001,
+                9.99999, -9.99999, 0.1 + 0.2, Long.MAX_VALUE / 3 + 0.5};
+        String[] expectedResults = {"0", "0", "5", "-151", "10000000000", "-4611686018427387904", "175.5",
+                "102.1236", "0.0005", "2", "0", "10", "-10", "0.3", "3074457345618258432"};
+
+        for (int i = 0; i < values.length; i++) {
+            //run
+            String result = ResultFormatter.toString(values[i]);
+
+            //assert
+            Assert.assertEquals(String.valueOf(values[i]), expectedResults[i], result);
+        }
+    }
+
+    @Test
+    public void toStringOfValue1() {
+        //given
+        double large = 1e300;
+
+        //run
+        String largeResult = ResultFormatter.toString(large);
+        String maxResult = ResultFormatter.toString(-Double.MAX_VALUE);
+        String nanResult = ResultFormatter.toString(Double.NaN);
+        String infiniteResult = ResultFormatter.toString(Double.NEGATIVE_INFINITY);
+
+        //assert
+        Assert.assertEquals(new BigDecimal(large).toPlainString(), largeResult);
+        Assert.assertEquals(ResultFormatter.MAX_LENGTH, maxResult.length());
+        Assert.assertNull(nanResult);
+        Assert.assertNull(infiniteResult);
+    }
+
+    @Test
+    public void format() {
+        //given
+        StringBuilder builder = new StringBuilder("x=");
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        char[] array = new char[8];
+
+        //run
+        boolean appended = ResultFormatter.format(-2.5, builder);
+        boolean infiniteAppended = ResultFormatter.format(1 / 0.0, builder);
+        int bytes = ResultFormatter.format(1e10, buffer);
+        int characters = ResultFormatter.format(0.25, array, 3);
+        int nanCharacters = ResultFormatter.format(Double.NaN, array, 0);
+
+        //assert
+        Assert.assertTrue(appended);
+        Assert.assertFalse(infiniteAppended);
+        Assert.assertEquals("x=-2.5", builder.toString());
+        Assert.assertEquals(11, bytes);
+        Assert.assertEquals("10000000000", new String(buffer.array(), 0, bytes, StandardCharsets.US_ASCII));
+        Assert.assertEquals(4, characters);
+        Assert.assertEquals("0.25", new String(array, 3, characters));
+        Assert.assertEquals(-1, nanCharacters);
+    }
+
+    @Test
+    public void format1() {
+        //given
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        buffer.put((byte) '1');
+
+        try {
+            //run
+            ResultFormatter.format(1234, buffer);
+            Assert.fail();
+        } catch (BufferOverflowException e) {
+            //assert
+            Assert.assertEquals(1, buffer.position());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void format2() {
+        //given
+        char[] array = new char[8];
+
+        //run
+        ResultFormatter.format(-1234.5678, array, 1);
+
+        //assert: exception
+    }
+}
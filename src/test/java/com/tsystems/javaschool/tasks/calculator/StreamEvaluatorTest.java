@@ -0,0 +1,179 @@
+package com.tsystems.javaschool.tasks.calculator;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamEvaluatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Calculator calc = new Calculator();
+
+    @Test
+    public void evaluateAll() throws Exception {
+        //given
+        Path in = folder.newFile("in.txt").toPath();
+        Path out = folder.newFile("out.txt").toPath();
+        Files.write(in, "2+3\r\n10/(2-7+3)*4\n5++41-6\n\n22/4*2.159".getBytes(StandardCharsets.US_ASCII));
+        String expectedResult = "5\n-20\nnull\nnull\n11.8745\n";
+
+        //run
+        long statements = calc.evaluateAll(in, out);
+
+        //assert
+        Assert.assertEquals(5, statements);
+        Assert.assertEquals(expectedResult, new String(Files.readAllBytes(out), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void evaluateAll1() throws Exception {
+        //given
+        Path in = folder.newFile("in.txt").toPath();
+        Path out = folder.newFile("out.txt").toPath();
+        List<String> statements = new ArrayList<>();
+        List<String> expectedResults = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            String statement = i + " * 3 / (" + (i % 7) + " - 1)";
+            statements.add(statement);
+            expectedResults.add(String.valueOf(calc.evaluate(statement)));
+        }
+        Files.write(in, statements, StandardCharsets.US_ASCII);
+
+        //run
+        long evaluated = calc.evaluateAll(in, out);
+
+        //assert
+        Assert.assertEquals(statements.size(), evaluated);
+        Assert.assertEquals(expectedResults, Files.readAllLines(out, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void evaluateAll2() throws Exception {
+        //given
+        Path in = folder.newFile("in.txt").toPath();
+        Path out = folder.newFile("out.txt").toPath();
+        StringBuilder longStatement = new StringBuilder("1");
+        while (longStatement.length() < 3 * StreamEvaluator.BUFFER_SIZE) {
+            longStatement.append(" + 1");
+        }
+        String input = "1+1\n" + longStatement + "\n2*2\n";
+        Files.write(in, input.getBytes(StandardCharsets.US_ASCII));
+        String expectedResult = "2\n" + calc.evaluate(longStatement.toString()) + "\n4\n";
+
+        //run
+        long statements = calc.evaluateAll(in, out);
+
+        //assert
+        Assert.assertEquals(3, statements);
+        Assert.assertEquals(expectedResult, new String(Files.readAllBytes(out), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void evaluateAll3() throws Exception {
+        //given
+        Path in = folder.newFile("in.txt").toPath();
+        Path out = folder.newFile("out.txt").toPath();
+
+        //run
+        long statements = calc.evaluateAll(in, out);
+
+        //assert
+        Assert.assertEquals(0, statements);
+        Assert.assertEquals(0, Files.size(out));
+    }
+
+    @Test
+    public void evaluateAll4() throws Exception {
+        //given
+        String input = "2+3\r\n(1 + 38) * 4.5 - 1 / 2.\n\u00e9+1\n10/(5-5)";
+        String expectedResult = "5\n175\nnull\nnull\n";
+        StringWriter out = new StringWriter();
+
+        //run
+        long statements = calc.evaluateAll(new StringReader(input), out);
+
+        //assert
+        Assert.assertEquals(4, statements);
+        Assert.assertEquals(expectedResult, out.toString());
+    }
+
+    @Test
+    public void evaluateAll5() throws Exception {
+        //given
+        StringBuilder longStatement = new StringBuilder("1");
+        while (longStatement.length() < 3 * StreamEvaluator.BUFFER_SIZE) {
+            longStatement.append(" + 1");
+        }
+        String input = "1+1\n" + longStatement + "\n2*2";
+        String expectedResult = "2\n" + calc.evaluate(longStatement.toString()) + "\n4\n";
+        StringWriter out = new StringWriter();
+
+        //run
+        long statements = calc.evaluateAll(new StringReader(input), out);
+
+        //assert
+        Assert.assertEquals(3, statements);
+        Assert.assertEquals(expectedResult, out.toString());
+    }
+
+    /**
+     * Result longer than the output buffer is written in parts.
+     */
+    @Test
+    public void evaluateAll6() throws Exception {
+        //given
+        Path in = folder.newFile("in.txt").toPath();
+        Path out = folder.newFile("out.txt").toPath();
+        Calculator decimal = new Calculator(null, MathContext.UNLIMITED);
+        StringBuilder longNumber = new StringBuilder("1");
+        while (longNumber.length() < StreamEvaluator.BUFFER_SIZE + 5_000) {
+            longNumber.append('0');
+        }
+        String longStatement = longNumber + " + 1";
+        Files.write(in, ("1+1\n" + longStatement + "\n2*2\n").getBytes(StandardCharsets.US_ASCII));
+        String longResult = decimal.evaluate(longStatement);
+
+        //run
+        long statements = decimal.evaluateAll(in, out);
+
+        //assert
+        Assert.assertEquals(3, statements);
+        Assert.assertEquals(StreamEvaluator.BUFFER_SIZE + 5_000, longResult.length());
+        Assert.assertEquals("2\n" + longResult + "\n4\n",
+                new String(Files.readAllBytes(out), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Statements are not lost when results would overwrite them.
+     */
+    @Test
+    public void evaluateAll7() throws Exception {
+        //given
+        Path in = folder.newFile("in.txt").toPath();
+        Files.write(in, "2+3\n".getBytes(StandardCharsets.US_ASCII));
+        Path sameFile = in.getParent().resolve(".").resolve(in.getFileName());
+
+        //run
+        try {
+            calc.evaluateAll(in, sameFile);
+            Assert.fail("Same file is accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        //assert
+        Assert.assertEquals("2+3\n", new String(Files.readAllBytes(in), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,137 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+public class ParallelSubsequenceTest {
+    private static final int SIZE = 5 * ParallelSubsequence.MIN_PART_SIZE;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ParallelSubsequence parallelSubsequence = new ParallelSubsequence(pool);
+    private final Subsequence subsequence = new Subsequence();
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void find() {
+        //given
+        List x = Stream.of("A", "B", "C", "D").collect(toList());
+        List y = Stream.of("BD", "A", "ABC", "B", "M", "D", "M", "C", "DC", "D").collect(toList());
+
+        //run
+        boolean result = parallelSubsequence.find(x, y);
+        boolean reversedResult = parallelSubsequence.find(y, x);
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertFalse(reversedResult);
+    }
+
+    /**
+     * Parts give the same results as the sequential check.
+     */
+    @Test
+    public void find1() {
+        //given
+        Random random = new Random(42);
+        List<Integer> y = random.ints(SIZE, 0, 50).boxed().collect(toList());
+
+        for (int i = 0; i < 200; i++) {
+            List<Integer> x = new ArrayList<>();
+            int length = random.nextInt(2_000);
+            for (int position = 0; x.size() < length; position += 1 + random.nextInt(2 * SIZE / (length + 1))) {
+                boolean fromY = random.nextInt(100) > 0 && position < SIZE;
+                x.add(fromY ? y.get(position) : random.nextInt(51));
+            }
+
+            //run
+            boolean result = parallelSubsequence.find(x, y);
+
+            //assert
+            Assert.assertEquals(x.toString(), subsequence.find(x, y), result);
+        }
+    }
+
+    /**
+     * Cursors of all entries advance on every element and never meet, transitions of parts are abandoned.
+     */
+    @Test
+    public void find2() {
+        //given
+        Integer a = 1;
+        Integer b = 2;
+        List<Integer> y = new ArrayList<>(Collections.nCopies(SIZE, a));
+        List<Integer> x = new ArrayList<>(Collections.nCopies(SIZE / 64, a));
+        List<Integer> missing = new ArrayList<>(x);
+        missing.add(b);
+        y.set(SIZE - 1, b);
+        List<Integer> present = new ArrayList<>(x);
+        present.add(b);
+        List<Integer> tooLong = new ArrayList<>(Collections.nCopies(SIZE, a));
+
+        //run
+        boolean missingResult = parallelSubsequence.find(missing, y.subList(0, SIZE - 1));
+        boolean presentResult = parallelSubsequence.find(present, y);
+        boolean tooLongResult = parallelSubsequence.find(tooLong, y);
+
+        //assert
+        Assert.assertFalse(missingResult);
+        Assert.assertTrue(presentResult);
+        Assert.assertFalse(tooLongResult);
+    }
+
+    @Test
+    public void find3() {
+        //given
+        List<Integer> y = new Random(42).ints(SIZE, 0, 1000).boxed().collect(toList());
+        List<Integer> x = Arrays.asList(y.get(0), y.get(SIZE / 2), y.get(SIZE - 1));
+
+        //run
+        boolean result = new ParallelSubsequence().find(x, y);
+        boolean emptyResult = parallelSubsequence.find(new ArrayList(), y);
+        boolean linkedResult = parallelSubsequence.find(x, new LinkedList<>(y));
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertTrue(emptyResult);
+        Assert.assertTrue(linkedResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void find4() {
+        //given
+        List x = new ArrayList();
+        List y = null;
+
+        //run
+        parallelSubsequence.find(x, y);
+
+        //assert: exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelSubsequence() {
+        //given
+        ForkJoinPool pool = null;
+
+        //run
+        new ParallelSubsequence(pool);
+
+        //assert: exception
+    }
+}
@@ -0,0 +1,137 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+public class SubsequenceIndexTest {
+
+    private Subsequence subsequence = new Subsequence();
+
+    @Test
+    public void find() {
+        //given
+        List y = Stream.of("BD", "A", "ABC", "B", "M", "D", "M", "C", "DC", "D").collect(toList());
+        SubsequenceIndex index = new SubsequenceIndex(y);
+
+        //run
+        boolean result = index.find(Arrays.asList("A", "B", "C", "D"));
+        boolean repeatedResult = index.find(Arrays.asList("M", "M", "D"));
+        boolean reversedResult = index.find(Arrays.asList("B", "A", "D", "C"));
+        boolean unknownResult = index.find(Arrays.asList("A", "E"));
+        boolean emptyResult = index.find(new ArrayList());
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertTrue(repeatedResult);
+        Assert.assertFalse(reversedResult);
+        Assert.assertFalse(unknownResult);
+        Assert.assertTrue(emptyResult);
+        Assert.assertEquals(10, index.size());
+        Assert.assertEquals(8, index.getDistinctCount());
+    }
+
+    /**
+     * Index gives the same results as the scan of the sequence.
+     */
+    @Test
+    public void find1() {
+        //given
+        Random random = new Random(42);
+        List<Integer> y = random.ints(10_000, 0, 100).boxed().collect(toList());
+        SubsequenceIndex index = new SubsequenceIndex(y);
+
+        for (int i = 0; i < 1_000; i++) {
+            List<Integer> x = random.ints(random.nextInt(200), 0, 101).boxed().collect(toList());
+
+            //run
+            boolean result = index.find(x);
+
+            //assert
+            Assert.assertEquals(x.toString(), subsequence.find(x, y), result);
+        }
+    }
+
+    @Test
+    public void find2() {
+        //given
+        List y = Arrays.asList(null, 1, null, 2);
+        SubsequenceIndex index = new SubsequenceIndex(y);
+
+        //run
+        boolean result = index.find(Arrays.asList(null, null, 2));
+        boolean tooManyNulls = index.find(Arrays.asList(null, null, null));
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertFalse(tooManyNulls);
+    }
+
+    /**
+     * Elements are compared by reference, like in {@link Subsequence}.
+     */
+    @Test
+    public void find3() {
+        //given
+        List y = Arrays.asList(new String("A"), "B");
+        SubsequenceIndex index = new SubsequenceIndex(y);
+
+        //run
+        boolean result = index.find(Arrays.asList("A", "B"));
+
+        //assert
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void find4() {
+        //given
+        List<Integer> y = IntStream.range(0, 100_000).boxed().collect(toList());
+        SubsequenceIndex index = new SubsequenceIndex(y);
+        List<List<Integer>> queries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            queries.add(Arrays.asList(y.get(i), y.get(50_000 + i), y.get(99_999 - i)));
+        }
+
+        //run
+        long found = queries.parallelStream().filter(index::find).count();
+
+        //assert
+        Assert.assertEquals(100, found);
+    }
+
+    @Test
+    public void getMemoryUsage() {
+        //given
+        List<Integer> y = IntStream.range(0, 100_000).map(i -> i % 10).boxed().collect(toList());
+
+        //run
+        SubsequenceIndex index = new SubsequenceIndex(y);
+        SubsequenceIndex empty = new SubsequenceIndex(new ArrayList());
+
+        //assert
+        Assert.assertTrue(index.getMemoryUsage() >= 4 * 100_000);
+        Assert.assertTrue(index.getMemoryUsage() < 5 * 100_000);
+        Assert.assertTrue(empty.getMemoryUsage() > 0);
+        Assert.assertTrue(empty.getMemoryUsage() < index.getMemoryUsage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subsequenceIndex() {
+        //given
+        List y = null;
+
+        //run
+        new SubsequenceIndex(y);
+
+        //assert: exception
+    }
+}
@@ -0,0 +1,119 @@
+package com.tsystems.javaschool.tasks.subsequence;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+public class SubsequenceMatcherTest {
+
+    private Subsequence subsequence = new Subsequence();
+
+    @Test
+    public void find() {
+        //given
+        List y = Stream.of("BD", "A", "ABC", "B", "M", "D", "M", "C", "DC", "D").collect(toList());
+        SubsequenceMatcher matcher = new SubsequenceMatcher(Arrays.asList(
+                Arrays.asList("A", "B", "C", "D"),
+                Arrays.asList("B", "A", "D", "C"),
+                Arrays.asList("M", "M", "D"),
+                new ArrayList(),
+                Arrays.asList("D", "D", "D")));
+
+        //run
+        BitSet result = matcher.find(y);
+
+        //assert
+        Assert.assertEquals("{0, 2, 3}", result.toString());
+        Assert.assertEquals(5, matcher.size());
+    }
+
+    /**
+     * Matcher gives the same results as the check of every pattern.
+     */
+    @Test
+    public void find1() {
+        //given
+        Random random = new Random(42);
+        List<Integer> y = random.ints(10_000, 0, 100).boxed().collect(toList());
+        List<List<Integer>> patterns = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            patterns.add(random.ints(random.nextInt(200), 0, 101).boxed().collect(toList()));
+        }
+        SubsequenceMatcher matcher = new SubsequenceMatcher(patterns);
+
+        //run
+        BitSet result = matcher.find(y);
+
+        //assert
+        for (int i = 0; i < patterns.size(); i++) {
+            Assert.assertEquals(patterns.get(i).toString(), subsequence.find(patterns.get(i), y), result.get(i));
+        }
+    }
+
+    /**
+     * Sequence is passed element by element, an element advances a pattern only once.
+     */
+    @Test
+    public void accept() {
+        //given
+        SubsequenceMatcher matcher = new SubsequenceMatcher(Arrays.asList(
+                Arrays.asList(1, 1),
+                Arrays.asList(1, 2),
+                Arrays.asList(null, 2)));
+        SubsequenceMatcher.Matching matching = matcher.start();
+
+        //run
+        matching.accept(1);
+        BitSet afterFirst = matching.getMatches();
+        matching.accept(null);
+        matching.accept(2);
+        BitSet afterThird = matching.getMatches();
+        boolean complete = matching.isComplete();
+        matching.accept(1);
+
+        //assert
+        Assert.assertTrue(afterFirst.isEmpty());
+        Assert.assertEquals("{1, 2}", afterThird.toString());
+        Assert.assertFalse(complete);
+        Assert.assertTrue(matching.isComplete());
+        Assert.assertEquals("{0, 1, 2}", matching.getMatches().toString());
+    }
+
+    /**
+     * Scanned sequence is not iterated further than needed for all patterns.
+     */
+    @Test
+    public void find2() {
+        //given
+        List<Integer> numbers = IntStream.range(0, 100).boxed().collect(toList());
+        SubsequenceMatcher matcher = new SubsequenceMatcher(
+                Arrays.asList(numbers.subList(10, 20), numbers.subList(50, 60)));
+        Iterable y = () -> IntStream.iterate(0, i -> i + 1).mapToObj(i -> numbers.get(i % 100)).iterator();
+
+        //run
+        BitSet result = matcher.find(y);
+
+        //assert
+        Assert.assertEquals("{0, 1}", result.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subsequenceMatcher() {
+        //given
+        List<List> patterns = Arrays.asList(new ArrayList(), null);
+
+        //run
+        new SubsequenceMatcher(patterns);
+
+        //assert: exception
+    }
+}
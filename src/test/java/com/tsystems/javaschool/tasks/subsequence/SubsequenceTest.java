@@ -3,8 +3,13 @@ package com.tsystems.javaschool.tasks.subsequence;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
@@ -174,5 +179,171 @@ public class SubsequenceTest {
         //assert: exception
     }
 
+    /**
+     * Linked lists are walked once, indexed access would take quadratic time.
+     */
+    @Test(timeout = 10_000)
+    public void find10() {
+        //given
+        List x = new LinkedList();
+        List y = new LinkedList();
+        for (int i = 0; i < 1_000_000; i++) {
+            Integer element = i;
+            y.add(element);
+            if (i % 2 == 1) {
+                x.add(element);
+            }
+        }
+
+        //run
+        boolean result = subsequence.find(x, y);
+        y.remove(y.size() - 1);
+        boolean resultWithoutLast = subsequence.find(x, y);
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertFalse(resultWithoutLast);
+    }
+
+    @Test
+    public void find11() {
+        //given
+        List x = Stream.of("A", "B", "C", "D").collect(toList());
+        List y = new LinkedList(Arrays.asList("BD", "A", "ABC", "B", "M", "D", "M", "C", "DC", "D"));
+
+        //run
+        boolean result = subsequence.find(x, y);
+        boolean reversedResult = subsequence.find(y, x);
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertFalse(reversedResult);
+    }
+
+    @Test
+    public void find12() {
+        //given
+        Iterable x = new ArrayDeque(Arrays.asList(1, 3, 5));
+        Iterable y = Stream.of(1, 2, 3, 4, 5, 6).collect(toList());
+        Iterable z = new ArrayDeque(Arrays.asList(1, 2, 3, 4));
+
+        //run
+        boolean result = subsequence.find(x, y);
+        boolean resultInDeque = subsequence.find(x, z);
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertFalse(resultInDeque);
+    }
+
+    /**
+     * Second sequence is not iterated further than the last element of the first one.
+     */
+    @Test
+    public void find13() {
+        //given
+        Iterable x = Arrays.asList(2, 3);
+        Iterable y = () -> IntStream.iterate(1, i -> i + 1).boxed().iterator();
+
+        //run
+        boolean result = subsequence.find(x, y);
 
-}
\ No newline at end of file
+        //assert
+        Assert.assertTrue(result);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void find14() {
+        //given
+        Iterable x = new ArrayDeque();
+        Iterable y = null;
+
+        //run
+        subsequence.find(x, y);
+
+        //assert: exception
+    }
+
+    @Test
+    public void find15() {
+        //given
+        int[] x = {1, 3, 5, 7, 9};
+        int[] y = {10, 1, 2, 3, 4, 3, 5, 7, 9, 20};
+        long[] longX = {1, 3, Long.MAX_VALUE};
+        long[] longY = {1, 2, 3, Long.MAX_VALUE - 1};
+
+        //run
+        boolean result = subsequence.find(x, y);
+        boolean reversedResult = subsequence.find(y, x);
+        boolean longResult = subsequence.find(longX, longY);
+        boolean emptyResult = subsequence.find(new long[0], new long[0]);
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertFalse(reversedResult);
+        Assert.assertFalse(longResult);
+        Assert.assertTrue(emptyResult);
+    }
+
+    /**
+     * Bytes are searched by words, results are the same as for boxed bytes.
+     */
+    @Test
+    public void find16() {
+        //given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            byte[] y = new byte[random.nextInt(40)];
+            random.nextBytes(y);
+            byte[] x = new byte[random.nextInt(4)];
+            for (int j = 0; j < x.length; j++) {
+                x[j] = random.nextBoolean() && y.length > 0 ? y[random.nextInt(y.length)] : (byte) random.nextInt();
+            }
+
+            //run
+            boolean result = subsequence.find(x, y);
+
+            //assert
+            Assert.assertEquals(Arrays.toString(x) + " in " + Arrays.toString(y), subsequence.find(box(x), box(y)),
+                    result);
+        }
+    }
+
+    @Test
+    public void find17() {
+        //given
+        String x = "ABCD";
+        String y = "xAxxBxxxxxxxxxCxD";
+
+        //run
+        boolean result = subsequence.find(x, y);
+        boolean builderResult = subsequence.find(x, new StringBuilder(y));
+        boolean reversedResult = subsequence.find(new StringBuilder(x).reverse(), y);
+
+        //assert
+        Assert.assertTrue(result);
+        Assert.assertTrue(builderResult);
+        Assert.assertFalse(reversedResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void find18() {
+        //given
+        byte[] x = new byte[0];
+        byte[] y = null;
+
+        //run
+        subsequence.find(x, y);
+
+        //assert: exception
+    }
+
+    private static List<Byte> box(byte[] array) {
+        List<Byte> result = new ArrayList<>(array.length);
+        for (byte element : array) {
+            result.add(element);
+        }
+        return result;
+    }
+}